@@ -0,0 +1,242 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Local stand-in for LM Studio's OpenAI-compatible API, for load testing without a GPU.
+ * JDK only, no network access needed:
+ *
+ *   java LmStudioStub.java --port 1234 --slots 1 --latency lognormal:250:80 --tokens-per-sec 40 --error-rate 0.01
+ *
+ * Options:
+ *   --port N               listen port (1234)
+ *   --slots N              parallel generations, like LM Studio's parallel slots (1)
+ *   --queue-timeout-ms N   time a request may wait for a slot before a 503 (30000)
+ *   --latency SPEC         time to first token: fixed:MS, uniform:MIN:MAX, normal:MEAN:SD, lognormal:MEDIAN:SD (fixed:200)
+ *   --tokens-per-sec N     generation speed per slot (40)
+ *   --tokens MIN:MAX       generated length, capped by max_tokens (8:40)
+ *   --error-rate P         probability of an HTTP 500 (0)
+ *   --english-rate P       probability of an answer with an English token that survives the backend's
+ *                          word filter, so it fails validation and exercises the retry path (0)
+ *   --seed N               random seed, for reproducible runs
+ */
+public class LmStudioStub {
+
+    // Darija words, escaped so the file compiles under any default charset
+    private static final String[] WORDS = {
+            "\u0627\u0644\u0633\u0644\u0627\u0645", "\u0643\u064a\u0641\u0627\u0634", "\u062f\u0627\u064a\u0631", "\u0628\u0632\u0627\u0641", "\u0645\u0632\u064a\u0627\u0646", "\u062f\u0627\u0628\u0627", "\u0634\u0646\u0648", "\u0628\u063a\u064a\u062a", "\u0646\u0627\u0643\u0644", "\u0633\u0645\u064a\u062a\u064a",
+            "\u0647\u0627\u062f\u0634\u064a", "\u0627\u0644\u0630\u0643\u0627\u0621", "\u0627\u0644\u0627\u0635\u0637\u0646\u0627\u0639\u064a", "\u0643\u0627\u064a\u0642\u0635\u062f", "\u0628\u064a\u0647", "\u0627\u0644\u0642\u062f\u0631\u0629", "\u062f\u064a\u0627\u0644", "\u0627\u0644\u0622\u0644\u0627\u062a", "\u0627\u0644\u0644\u064a", "\u0639\u0627\u062f\u0629"
+    };
+
+    private static final Pattern MAX_TOKENS = Pattern.compile("\"max_tokens\"\\s*:\\s*(\\d+)");
+    private static final Pattern STREAM = Pattern.compile("\"stream\"\\s*:\\s*true");
+    private static final Pattern MODEL = Pattern.compile("\"model\"\\s*:\\s*\"([^\"]*)\"");
+
+    private final Semaphore slots;
+    private final long queueTimeoutMs;
+    private final String latency;
+    private final double tokensPerSec;
+    private final int minTokens;
+    private final int maxTokens;
+    private final double errorRate;
+    private final double englishRate;
+    private final Random random;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    LmStudioStub(Map<String, String> options) {
+        this.slots = new Semaphore(Integer.parseInt(options.getOrDefault("slots", "1")), true);
+        this.queueTimeoutMs = Long.parseLong(options.getOrDefault("queue-timeout-ms", "30000"));
+        this.latency = options.getOrDefault("latency", "fixed:200");
+        this.tokensPerSec = Double.parseDouble(options.getOrDefault("tokens-per-sec", "40"));
+        String[] tokens = options.getOrDefault("tokens", "8:40").split(":");
+        this.minTokens = Integer.parseInt(tokens[0]);
+        this.maxTokens = Integer.parseInt(tokens[tokens.length - 1]);
+        this.errorRate = Double.parseDouble(options.getOrDefault("error-rate", "0"));
+        this.englishRate = Double.parseDouble(options.getOrDefault("english-rate", "0"));
+        this.random = options.containsKey("seed") ? new Random(Long.parseLong(options.get("seed"))) : new Random();
+
+        sampleLatencyMs();
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = parseOptions(args);
+        int port = Integer.parseInt(options.getOrDefault("port", "1234"));
+
+        LmStudioStub stub = new LmStudioStub(options);
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 256);
+        server.createContext("/v1/chat/completions", stub::handleCompletion);
+        server.createContext("/v1/models", stub::handleModels);
+        server.createContext("/stats", stub::handleStats);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+
+        System.out.println("LM Studio stub listening on http://127.0.0.1:" + port + " " + options);
+    }
+
+    private void handleCompletion(HttpExchange exchange) throws IOException {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            send(exchange, 405, "{\"error\":\"Method not allowed\"}");
+            return;
+        }
+
+        String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        requests.incrementAndGet();
+
+        boolean acquired = false;
+        try {
+            acquired = slots.tryAcquire(queueTimeoutMs, TimeUnit.MILLISECONDS);
+            if (!acquired) {
+                rejected.incrementAndGet();
+                send(exchange, 503, "{\"error\":\"No free slot\"}");
+                return;
+            }
+
+            if (nextDouble() < errorRate) {
+                errors.incrementAndGet();
+                Thread.sleep(sampleLatencyMs());
+                send(exchange, 500, "{\"error\":\"Injected failure\"}");
+                return;
+            }
+
+            String model = find(MODEL, body, "stub-model");
+            int limit = Integer.parseInt(find(MAX_TOKENS, body, String.valueOf(maxTokens)));
+            List<String> tokens = generate(Math.min(limit, minTokens + nextInt(maxTokens - minTokens + 1)));
+
+            Thread.sleep(sampleLatencyMs());
+            if (STREAM.matcher(body).find()) {
+                stream(exchange, model, tokens);
+            } else {
+                Thread.sleep((long) (tokens.size() * 1000 / tokensPerSec));
+                send(exchange, 200, completion(model, String.join(" ", tokens), tokens.size()));
+            }
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (acquired) {
+                slots.release();
+            }
+            exchange.close();
+        }
+    }
+
+    private void stream(HttpExchange exchange, String model, List<String> tokens)
+            throws IOException, InterruptedException {
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        long delayMs = (long) (1000 / tokensPerSec);
+        String id = "chatcmpl-" + UUID.randomUUID();
+
+        try (OutputStream out = exchange.getResponseBody()) {
+            for (int i = 0; i < tokens.size(); i++) {
+                String content = (i == 0 ? "" : " ") + tokens.get(i);
+                String chunk = "{\"id\":\"%s\",\"object\":\"chat.completion.chunk\",\"model\":\"%s\",\"choices\":[{\"index\":0,\"delta\":{\"content\":\"%s\"},\"finish_reason\":null}]}"
+                        .formatted(id, model, content);
+                out.write(("data: " + chunk + "\n\n").getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                Thread.sleep(delayMs);
+            }
+            String last = "{\"id\":\"%s\",\"object\":\"chat.completion.chunk\",\"model\":\"%s\",\"choices\":[{\"index\":0,\"delta\":{},\"finish_reason\":\"stop\"}]}"
+                    .formatted(id, model);
+            out.write(("data: " + last + "\n\ndata: [DONE]\n\n").getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private void handleModels(HttpExchange exchange) throws IOException {
+        send(exchange, 200, "{\"object\":\"list\",\"data\":[{\"id\":\"llama-3.2-3b-instruct\",\"object\":\"model\"}]}");
+        exchange.close();
+    }
+
+    private void handleStats(HttpExchange exchange) throws IOException {
+        send(exchange, 200, "{\"requests\":%d,\"errors\":%d,\"rejected\":%d,\"freeSlots\":%d}"
+                .formatted(requests.get(), errors.get(), rejected.get(), slots.availablePermits()));
+        exchange.close();
+    }
+
+    private String completion(String model, String content, int completionTokens) {
+        return ("{\"id\":\"chatcmpl-%s\",\"object\":\"chat.completion\",\"created\":%d,\"model\":\"%s\","
+                + "\"choices\":[{\"index\":0,\"message\":{\"role\":\"assistant\",\"content\":\"%s\"},\"finish_reason\":\"stop\"}],"
+                + "\"usage\":{\"prompt_tokens\":0,\"completion_tokens\":%d,\"total_tokens\":%d}}")
+                .formatted(UUID.randomUUID(), System.currentTimeMillis() / 1000, model, content,
+                        completionTokens, completionTokens);
+    }
+
+    private List<String> generate(int count) {
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < Math.max(1, count); i++) {
+            tokens.add(WORDS[nextInt(WORDS.length)]);
+        }
+        // Un mot anglais isolé serait retiré par finalFilter avant la validation :
+        // le souligné le garde collé, comme un identifiant recopié tel quel
+        if (nextDouble() < englishRate) {
+            tokens.add("untranslated_text");
+        }
+        return tokens;
+    }
+
+    private long sampleLatencyMs() {
+        String[] spec = latency.split(":");
+        double value = switch (spec[0]) {
+            case "fixed" -> Double.parseDouble(spec[1]);
+            case "uniform" -> Double.parseDouble(spec[1])
+                    + nextDouble() * (Double.parseDouble(spec[2]) - Double.parseDouble(spec[1]));
+            case "normal" -> Double.parseDouble(spec[1]) + nextGaussian() * Double.parseDouble(spec[2]);
+            case "lognormal" -> {
+                double median = Double.parseDouble(spec[1]);
+                double sigma = Math.log1p(Double.parseDouble(spec[2]) / median);
+                yield median * Math.exp(sigma * nextGaussian());
+            }
+            default -> throw new IllegalArgumentException("Unknown latency distribution: " + latency);
+        };
+        return Math.max(0, Math.round(value));
+    }
+
+    private synchronized double nextDouble() {
+        return random.nextDouble();
+    }
+
+    private synchronized double nextGaussian() {
+        return random.nextGaussian();
+    }
+
+    private synchronized int nextInt(int bound) {
+        return random.nextInt(bound);
+    }
+
+    private static String find(Pattern pattern, String body, String defaultValue) {
+        Matcher matcher = pattern.matcher(body);
+        return matcher.find() ? matcher.group(1) : defaultValue;
+    }
+
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Expected --option value, got: " + args[i]);
+            }
+            options.put(args[i].substring(2), args[++i]);
+        }
+        return options;
+    }
+}
@@ -0,0 +1,178 @@
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Replays a corpus against the translate endpoint and reports throughput,
+ * latency percentiles, error rate and fallback rate. JDK only:
+ *
+ *   java LoadGenerator.java --corpus corpus.txt --concurrency 8 --duration 60
+ *
+ * Options:
+ *   --url URL           endpoint (http://localhost:8000/api/translator/translate)
+ *   --corpus FILE       one English text per line (corpus.txt)
+ *   --concurrency N     concurrent clients (4)
+ *   --duration S        measured seconds (30)
+ *   --warmup S          unmeasured seconds before measuring (5)
+ *   --rate R            target requests/s across all clients; when set, latency is measured
+ *                       from each request's scheduled start, so a saturated backend is not
+ *                       hidden by clients slowing down (closed loop when omitted)
+ *   --timeout S         per-request timeout (60)
+ */
+public class LoadGenerator {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        URI url = URI.create(options.getOrDefault("url", "http://localhost:8000/api/translator/translate"));
+        List<String> corpus = Files.readAllLines(Path.of(options.getOrDefault("corpus", "corpus.txt")), StandardCharsets.UTF_8)
+                .stream().filter(line -> !line.isBlank()).toList();
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "4"));
+        long durationMs = Long.parseLong(options.getOrDefault("duration", "30")) * 1000;
+        long warmupMs = Long.parseLong(options.getOrDefault("warmup", "5")) * 1000;
+        double rate = Double.parseDouble(options.getOrDefault("rate", "0"));
+        Duration timeout = Duration.ofSeconds(Long.parseLong(options.getOrDefault("timeout", "60")));
+
+        if (corpus.isEmpty()) {
+            throw new IllegalArgumentException("Corpus is empty");
+        }
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newFixedThreadPool(concurrency))
+                .build();
+
+        long start = System.nanoTime();
+        long measureFrom = start + warmupMs * 1_000_000;
+        long end = measureFrom + durationMs * 1_000_000;
+        long intervalNanos = rate > 0 ? (long) (1_000_000_000 / rate) : 0;
+
+        AtomicLong sequence = new AtomicLong();
+        AtomicLong ok = new AtomicLong();
+        AtomicLong fallbacks = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        List<long[]> latencies = Collections.synchronizedList(new ArrayList<>());
+
+        System.out.printf("Load test: %s, %d clients, %s, %ds warmup + %ds%n", url, concurrency,
+                rate > 0 ? rate + " req/s" : "closed loop", warmupMs / 1000, durationMs / 1000);
+
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        for (int c = 0; c < concurrency; c++) {
+            clients.submit(() -> {
+                long[] samples = new long[1024];
+                int count = 0;
+                while (true) {
+                    long n = sequence.getAndIncrement();
+                    long scheduled = intervalNanos > 0 ? start + n * intervalNanos : System.nanoTime();
+                    if (scheduled >= end) {
+                        break;
+                    }
+                    long wait = scheduled - System.nanoTime();
+                    if (wait > 0) {
+                        TimeUnit.NANOSECONDS.sleep(wait);
+                    }
+
+                    String text = corpus.get((int) (n % corpus.size()));
+                    HttpRequest request = HttpRequest.newBuilder(url)
+                            .timeout(timeout)
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(
+                                    "{\"text\":\"" + escape(text) + "\",\"sourceLang\":\"en\",\"targetLang\":\"darija\"}"))
+                            .build();
+
+                    boolean success;
+                    boolean fallback = false;
+                    try {
+                        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                        success = response.statusCode() == 200;
+                        fallback = success && response.body().contains("\"fallback\":true");
+                    } catch (IOException e) {
+                        success = false;
+                    }
+                    long finished = System.nanoTime();
+
+                    if (scheduled < measureFrom) {
+                        continue;
+                    }
+                    if (!success) {
+                        errors.incrementAndGet();
+                        continue;
+                    }
+                    ok.incrementAndGet();
+                    if (fallback) {
+                        fallbacks.incrementAndGet();
+                    }
+                    if (count == samples.length) {
+                        samples = Arrays.copyOf(samples, count * 2);
+                    }
+                    samples[count++] = finished - scheduled;
+                }
+                latencies.add(Arrays.copyOf(samples, count));
+                return null;
+            });
+        }
+
+        clients.shutdown();
+        clients.awaitTermination(durationMs + warmupMs + timeout.toMillis() * 2, TimeUnit.MILLISECONDS);
+        double elapsedS = Math.max(1, (Math.min(System.nanoTime(), end + timeout.toNanos()) - measureFrom)) / 1e9;
+
+        long[] all = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        long total = ok.get() + errors.get();
+
+        System.out.printf("requests     %d (ok %d, errors %d)%n", total, ok.get(), errors.get());
+        System.out.printf("throughput   %.2f req/s%n", ok.get() / elapsedS);
+        System.out.printf("latency ms   p50 %.1f  p95 %.1f  p99 %.1f  max %.1f%n",
+                percentile(all, 50), percentile(all, 95), percentile(all, 99), percentile(all, 100));
+        System.out.printf("error rate   %.2f%%%n", total == 0 ? 0 : 100.0 * errors.get() / total);
+        System.out.printf("fallback     %.2f%%%n", ok.get() == 0 ? 0 : 100.0 * fallbacks.get() / ok.get());
+        System.exit(0);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p / 100 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1e6;
+    }
+
+    private static String escape(String text) {
+        StringBuilder out = new StringBuilder(text.length() + 8);
+        for (char c : text.toCharArray()) {
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+                }
+            }
+        }
+        return out.toString();
+    }
+
+    static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Expected --option value, got: " + args[i]);
+            }
+            options.put(args[i].substring(2), args[++i]);
+        }
+        return options;
+    }
+}
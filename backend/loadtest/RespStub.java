@@ -0,0 +1,191 @@
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Local stand-in for a Redis-compatible server, for running the shared L2
+ * translation cache without Redis. JDK only, in-memory, RESP protocol:
+ *
+ *   java RespStub.java --port 6379 --latency-ms 2 --fail-rate 0.05
+ *
+ * Then start one or more backends with --translation.cache.l2.host=127.0.0.1.
+ *
+ * Supports PING, GET, SET (with EX), DEL, DBSIZE, FLUSHALL and INFO.
+ *
+ * Options:
+ *   --port N           listen port (6379)
+ *   --latency-ms N     delay added before every reply, to exercise the L2 timeout (0)
+ *   --fail-rate P      probability of closing the connection instead of replying (0)
+ *   --seed N           random seed, for reproducible runs
+ */
+public class RespStub {
+
+    private final Map<String, Entry> store = new ConcurrentHashMap<>();
+    private final long latencyMs;
+    private final double failRate;
+    private final Random random;
+
+    RespStub(Map<String, String> options) {
+        this.latencyMs = Long.parseLong(options.getOrDefault("latency-ms", "0"));
+        this.failRate = Double.parseDouble(options.getOrDefault("fail-rate", "0"));
+        this.random = options.containsKey("seed") ? new Random(Long.parseLong(options.get("seed"))) : new Random();
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = parseOptions(args);
+        int port = Integer.parseInt(options.getOrDefault("port", "6379"));
+
+        RespStub stub = new RespStub(options);
+        ExecutorService connections = Executors.newCachedThreadPool();
+        try (ServerSocket server = new ServerSocket(port, 256, InetAddress.getLoopbackAddress())) {
+            System.out.println("RESP stub listening on 127.0.0.1:" + port + " " + options);
+            while (true) {
+                Socket socket = server.accept();
+                connections.execute(() -> stub.serve(socket));
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket) {
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+            List<String> command;
+            while ((command = readCommand(in)) != null) {
+                if (latencyMs > 0) {
+                    Thread.sleep(latencyMs);
+                }
+                synchronized (random) {
+                    if (random.nextDouble() < failRate) {
+                        return;
+                    }
+                }
+                out.write(execute(command));
+                out.flush();
+            }
+        } catch (IOException e) {
+            // client parti
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private byte[] execute(List<String> command) {
+        String name = command.isEmpty() ? "" : command.get(0).toUpperCase(Locale.ROOT);
+        switch (name) {
+            case "PING":
+                return simple("PONG");
+            case "GET": {
+                Entry entry = store.get(command.get(1));
+                if (entry == null || entry.isExpired()) {
+                    store.remove(command.get(1));
+                    return "$-1\r\n".getBytes(StandardCharsets.US_ASCII);
+                }
+                return bulk(entry.value);
+            }
+            case "SET": {
+                long expiresAt = Long.MAX_VALUE;
+                for (int i = 3; i + 1 < command.size(); i += 2) {
+                    if (command.get(i).equalsIgnoreCase("EX")) {
+                        expiresAt = System.currentTimeMillis() + Long.parseLong(command.get(i + 1)) * 1000;
+                    }
+                }
+                store.put(command.get(1), new Entry(command.get(2).getBytes(StandardCharsets.UTF_8), expiresAt));
+                return simple("OK");
+            }
+            case "DEL": {
+                int removed = 0;
+                for (String key : command.subList(1, command.size())) {
+                    removed += store.remove(key) != null ? 1 : 0;
+                }
+                return (":" + removed + "\r\n").getBytes(StandardCharsets.US_ASCII);
+            }
+            case "DBSIZE":
+                return (":" + store.size() + "\r\n").getBytes(StandardCharsets.US_ASCII);
+            case "FLUSHALL":
+                store.clear();
+                return simple("OK");
+            case "INFO":
+                return bulk(("# Keyspace\r\nkeys:" + store.size() + "\r\n").getBytes(StandardCharsets.UTF_8));
+            default:
+                return ("-ERR unknown command '" + name + "'\r\n").getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    private static List<String> readCommand(InputStream in) throws IOException {
+        int type = in.read();
+        if (type == -1) {
+            return null;
+        }
+        if (type != '*') {
+            throw new IOException("Only RESP arrays are supported");
+        }
+        int count = Integer.parseInt(readLine(in));
+        List<String> command = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            if (in.read() != '$') {
+                throw new IOException("Expected bulk string");
+            }
+            int length = Integer.parseInt(readLine(in));
+            byte[] bytes = in.readNBytes(length);
+            in.read();
+            in.read();
+            command.add(new String(bytes, StandardCharsets.UTF_8));
+        }
+        return command;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int c;
+        while ((c = in.read()) != '\r') {
+            if (c == -1) {
+                throw new EOFException();
+            }
+            line.append((char) c);
+        }
+        in.read();
+        return line.toString();
+    }
+
+    private static byte[] simple(String value) {
+        return ("+" + value + "\r\n").getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] bulk(byte[] value) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(value.length + 16);
+        out.writeBytes(("$" + value.length + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.writeBytes(value);
+        out.writeBytes("\r\n".getBytes(StandardCharsets.US_ASCII));
+        return out.toByteArray();
+    }
+
+    private static final class Entry {
+        private final byte[] value;
+        private final long expiresAt;
+
+        Entry(byte[] value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+    }
+
+    static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Expected --option value, got: " + args[i]);
+            }
+            options.put(args[i].substring(2), args[++i]);
+        }
+        return options;
+    }
+}
@@ -0,0 +1,39 @@
+#!/usr/bin/env bash
+# Offline capacity run: LM Studio stub + backend + load generator on one box.
+# Usage: ./run.sh [load generator options...]
+# Stub behaviour is set with STUB_OPTS, e.g. STUB_OPTS="--slots 2 --latency lognormal:300:100"
+# Set L2_PORT to also start RespStub and use it as the shared L2 translation cache
+set -euo pipefail
+
+cd "$(dirname "$0")"
+STUB_PORT=${STUB_PORT:-1234}
+STUB_OPTS=${STUB_OPTS:-"--slots 1 --latency lognormal:250:80 --tokens-per-sec 40"}
+JAR=$(ls ../target/*.jar 2>/dev/null | grep -v plain | head -n 1 || true)
+
+if [ -z "$JAR" ]; then
+    echo "Backend jar not found, run ../mvnw -q package -DskipTests first" >&2
+    exit 1
+fi
+
+java LmStudioStub.java --port "$STUB_PORT" $STUB_OPTS &
+STUB_PID=$!
+L2_PID=
+# Expanded as ${L2_ARGS[@]+...}: an empty array trips set -u on bash < 4.4 (macOS)
+L2_ARGS=()
+if [ -n "${L2_PORT:-}" ]; then
+    java RespStub.java --port "$L2_PORT" &
+    L2_PID=$!
+    L2_ARGS=(--translation.cache.l2.host=127.0.0.1 --translation.cache.l2.port="$L2_PORT")
+fi
+java -jar "$JAR" --lm.studio.url="http://127.0.0.1:$STUB_PORT" ${L2_ARGS[@]+"${L2_ARGS[@]}"} \
+    --logging.level.org.mql.spring.boot.translator=WARN > backend.log 2>&1 &
+BACKEND_PID=$!
+trap 'kill $STUB_PID $L2_PID $BACKEND_PID 2>/dev/null || true' EXIT
+
+for _ in $(seq 1 60); do
+    curl -sf http://localhost:8000/api/translator/health > /dev/null && break
+    sleep 1
+done
+
+java LoadGenerator.java --corpus corpus.txt "$@"
+curl -s "http://127.0.0.1:$STUB_PORT/stats"; echo
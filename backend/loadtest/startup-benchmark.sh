@@ -0,0 +1,48 @@
+#!/usr/bin/env bash
+# Compares the standard build with the fast-startup build (AOT + CDS, Jersey only):
+# time from JVM launch to the first successful translate, and RSS at that point.
+# Usage: RUNS=5 ./startup-benchmark.sh
+set -euo pipefail
+
+cd "$(dirname "$0")"
+RUNS=${RUNS:-5}
+STUB_PORT=${STUB_PORT:-1234}
+WORK=$(mktemp -d)
+NAME=$(cd .. && ./mvnw -q help:evaluate -Dexpression=project.build.finalName -DforceStdout)
+
+echo "Building standard and fast-startup variants..."
+(cd .. && ./mvnw -q clean package -DskipTests)
+cp "../target/$NAME.jar" "$WORK/standard.jar"
+(cd .. && ./mvnw -q clean package -DskipTests -Dfast-startup)
+cp -r ../target/application "$WORK/fast"
+
+java LmStudioStub.java --port "$STUB_PORT" --latency fixed:20 --tokens-per-sec 1000 > /dev/null &
+STUB_PID=$!
+trap 'kill $STUB_PID 2>/dev/null || true; rm -rf "$WORK"' EXIT
+sleep 2
+
+measure() {
+    local label=$1 dir=$2
+    shift 2
+    local total_ms=0 total_rss=0
+    for run in $(seq 1 "$RUNS"); do
+        local start pid ms rss
+        start=$(date +%s%N)
+        (cd "$dir" && exec java "$@" --lm.studio.url="http://127.0.0.1:$STUB_PORT" > /dev/null 2>&1) &
+        pid=$!
+        until curl -sf -o /dev/null -H 'Content-Type: application/json' \
+                -d '{"text":"Hello"}' http://localhost:8000/api/translator/translate; do
+            sleep 0.02
+        done
+        ms=$(( ($(date +%s%N) - start) / 1000000 ))
+        rss=$(awk '/VmRSS/ {print int($2 / 1024)}' "/proc/$pid/status")
+        kill "$pid"; wait "$pid" 2>/dev/null || true
+        echo "  $label run $run: ${ms} ms to first translate, ${rss} MB RSS"
+        total_ms=$((total_ms + ms)); total_rss=$((total_rss + rss))
+    done
+    echo "$label: avg $((total_ms / RUNS)) ms, avg $((total_rss / RUNS)) MB RSS"
+}
+
+measure standard "$WORK" -jar standard.jar
+measure fast-startup "$WORK/fast" -XX:SharedArchiveFile=application.jsa \
+    -Dspring.aot.enabled=true -Dspring.profiles.active=fast-startup -jar "$NAME.jar"
@@ -0,0 +1,56 @@
+package org.mql.spring.boot.translator.config;
+
+import jakarta.servlet.ServletContextEvent;
+import jakarta.servlet.ServletContextListener;
+import jakarta.websocket.DeploymentException;
+import jakarta.websocket.server.ServerContainer;
+import jakarta.websocket.server.ServerEndpointConfig;
+import org.mql.spring.boot.translator.controller.LiveTranslationEndpoint;
+import org.mql.spring.boot.translator.service.LiveTranslationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Registers the WebSocket endpoints with the servlet container's standard
+ * ServerContainer, so they work without Spring MVC (see the fast-startup profile).
+ */
+@Component
+public class WebSocketConfig implements ServletContextListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebSocketConfig.class);
+
+    public static final String LIVE_TRANSLATION_PATH = "/api/translator/live";
+
+    private final LiveTranslationService liveTranslationService;
+
+    public WebSocketConfig(LiveTranslationService liveTranslationService) {
+        this.liveTranslationService = liveTranslationService;
+    }
+
+    @Override
+    public void contextInitialized(ServletContextEvent event) {
+        ServerContainer container = (ServerContainer) event.getServletContext()
+                .getAttribute(ServerContainer.class.getName());
+        if (container == null) {
+            logger.warn("No WebSocket container available, {} is disabled", LIVE_TRANSLATION_PATH);
+            return;
+        }
+
+        ServerEndpointConfig config = ServerEndpointConfig.Builder
+                .create(LiveTranslationEndpoint.class, LIVE_TRANSLATION_PATH)
+                .configurator(new ServerEndpointConfig.Configurator() {
+                    @Override
+                    public <T> T getEndpointInstance(Class<T> endpointClass) {
+                        return endpointClass.cast(new LiveTranslationEndpoint(liveTranslationService));
+                    }
+                })
+                .build();
+
+        try {
+            container.addEndpoint(config);
+        } catch (DeploymentException e) {
+            throw new IllegalStateException("Could not register " + LIVE_TRANSLATION_PATH, e);
+        }
+    }
+}
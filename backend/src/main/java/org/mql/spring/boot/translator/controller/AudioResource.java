@@ -1,16 +1,28 @@
 package org.mql.spring.boot.translator.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.ws.rs.*;
-import jakarta.ws.rs.core.MediaType;
-import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.*;
+import org.glassfish.jersey.server.CloseableService;
+import org.mql.spring.boot.translator.model.AudioPreprocessingStats;
 import org.mql.spring.boot.translator.service.AudioService;
+import org.mql.spring.boot.translator.service.SpeechTranslationPipeline;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
 import java.util.Base64;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @Component
 @Path("/audio")
@@ -19,9 +31,14 @@ public class AudioResource {
     
     private static final Logger logger = LoggerFactory.getLogger(AudioResource.class);
     
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    
     @Autowired
     private AudioService audioService;
     
+    @Autowired
+    private SpeechTranslationPipeline speechTranslationPipeline;
+    
     @POST
     @Path("/speech-to-text")
     @Consumes(MediaType.APPLICATION_JSON)
@@ -38,13 +55,19 @@ public class AudioResource {
             byte[] audioData = Base64.getDecoder().decode(audioBase64.split(",")[1]);
             
             //  vers le texte
-            String text = audioService.speechToText(audioData);
+            AudioPreprocessingStats stats = new AudioPreprocessingStats();
+            String text = audioService.speechToText(audioData, stats);
             
             return Response.ok(Map.of(
                     "success", true,
-                    "text", text
+                    "text", text,
+                    "preprocessing", stats
             )).build();
             
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(Map.of("error", "Audio must be a base64 data URL"))
+                    .build();
         } catch (Exception e) {
             logger.error("Speech-to-text error", e);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
@@ -56,7 +79,7 @@ public class AudioResource {
     @POST
     @Path("/text-to-speech")
     @Consumes(MediaType.APPLICATION_JSON)
-    public Response textToSpeech(Map<String, String> request) {
+    public Response textToSpeech(Map<String, String> request, @Context UriInfo uriInfo) {
         try {
             String text = request.get("text");
             String language = request.getOrDefault("language", "en");
@@ -67,12 +90,16 @@ public class AudioResource {
                         .build();
             }
             
-            // vers audio
-            String audioBase64 = audioService.textToSpeech(text, language);
+            // vers audio (mis en cache, servi par GET /audio/tts/{key})
+            String key = request.containsKey("voice")
+                    ? audioService.textToSpeech(text, language, request.get("voice"))
+                    : audioService.textToSpeech(text, language);
+            String url = speechUrl(uriInfo, key);
             
             return Response.ok(Map.of(
                     "success", true,
-                    "audio", audioBase64
+                    "audio", url,
+                    "key", key
             )).build();
             
         } catch (Exception e) {
@@ -82,4 +109,248 @@ public class AudioResource {
                     .build();
         }
     }
-}
\ No newline at end of file
+    
+    /**
+     * Speech -> Darija speech in one round-trip. Streams newline-delimited JSON:
+     * one "transcript" event, one "segment" event per sentence (in order, each
+     * with its audio URL) and a final "summary" with per-stage timings.
+     */
+    @POST
+    @Path("/translate-speech")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces("application/x-ndjson")
+    public Response translateSpeech(Map<String, String> request, @Context UriInfo uriInfo) {
+        String audioBase64 = request.get("audio");
+        
+        if (audioBase64 == null || audioBase64.isEmpty()) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .type(MediaType.APPLICATION_JSON)
+                    .entity(Map.of("error", "Audio data is required"))
+                    .build();
+        }
+        
+        SpeechTranslationPipeline.Run run;
+        try {
+            byte[] audioData = Base64.getDecoder().decode(audioBase64.substring(audioBase64.indexOf(',') + 1));
+            run = speechTranslationPipeline.start(audioData);
+            
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .type(MediaType.APPLICATION_JSON)
+                    .entity(Map.of("error", "Audio must be base64-encoded"))
+                    .build();
+        } catch (RejectedExecutionException e) {
+            return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                    .type(MediaType.APPLICATION_JSON)
+                    .header("Retry-After", 30)
+                    .entity(Map.of("error", "Too many speech translations in progress, retry later"))
+                    .build();
+        }
+        
+        StreamingOutput stream = output -> {
+            SpeechTranslationPipeline.EventSink sink = event -> {
+                Object key = event.remove("audioKey");
+                if (key != null) {
+                    event.put("audio", speechUrl(uriInfo, (String) key));
+                }
+                writeLine(output, event);
+            };
+            
+            try {
+                speechTranslationPipeline.stream(run, sink);
+            } catch (IOException e) {
+                logger.warn("Client disconnected during speech translation: {}", e.getMessage());
+            } catch (Exception e) {
+                logger.error("Speech translation error", e);
+                writeLine(output, Map.of("type", "error", "error", String.valueOf(e.getMessage())));
+            }
+        };
+        
+        return Response.ok(stream).build();
+    }
+    
+    private void writeLine(OutputStream output, Map<String, Object> event) throws IOException {
+        output.write(objectMapper.writeValueAsBytes(event));
+        output.write('\n');
+        output.flush();
+    }
+    
+    private String speechUrl(UriInfo uriInfo, String key) {
+        return uriInfo.getBaseUriBuilder()
+                .path(AudioResource.class)
+                .path("tts")
+                .path(key)
+                .build()
+                .toString();
+    }
+    
+    @GET
+    @Path("/tts/{key}")
+    @Produces("audio/wav")
+    public Response getSpeech(@PathParam("key") String key,
+                              @HeaderParam("Range") String range,
+                              @HeaderParam("If-Range") String ifRange,
+                              @Context Request request,
+                              @Context CloseableService closeables) {
+        try {
+            java.nio.file.Path file = audioService.getSpeechFile(key);
+            if (file == null) {
+                return audioNotFound();
+            }
+            
+            // Contenu adressé par hash : l'ETag ne change jamais
+            EntityTag etag = new EntityTag(key);
+            Response.ResponseBuilder notModified = request.evaluatePreconditions(etag);
+            if (notModified != null) {
+                return notModified.cacheControl(speechCacheControl()).build();
+            }
+            
+            // Ouvert avant les en-têtes : une éviction concurrente ne coupe plus la lecture
+            FileChannel channel;
+            try {
+                channel = FileChannel.open(file, StandardOpenOption.READ);
+            } catch (NoSuchFileException e) {
+                return audioNotFound();
+            }
+            // Fermé en fin de requête même si l'entité n'est jamais écrite (écriture annulée, erreur)
+            closeables.add(channel);
+            
+            long size = channel.size();
+            long start = 0;
+            long end = size - 1;
+            boolean partial = false;
+            
+            if (range != null && (ifRange == null || ifRange.equals(etag.toString()))) {
+                long[] bounds = parseRange(range, size);
+                if (bounds == null) {
+                    channel.close();
+                    return Response.status(Response.Status.REQUESTED_RANGE_NOT_SATISFIABLE)
+                            .header("Content-Range", "bytes */" + size)
+                            .build();
+                }
+                if (bounds.length == 2) {
+                    start = bounds[0];
+                    end = bounds[1];
+                    partial = true;
+                }
+            }
+            
+            Response.ResponseBuilder builder = partial
+                    ? Response.status(Response.Status.PARTIAL_CONTENT)
+                            .header("Content-Range", "bytes " + start + "-" + end + "/" + size)
+                    : Response.ok();
+            
+            return builder
+                    .entity(transfer(channel, start, end - start + 1))
+                    .tag(etag)
+                    .cacheControl(speechCacheControl())
+                    .header("Accept-Ranges", "bytes")
+                    .header(HttpHeaders.CONTENT_LENGTH, end - start + 1)
+                    .build();
+            
+        } catch (Exception e) {
+            logger.error("Audio retrieval error", e);
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .type(MediaType.APPLICATION_JSON)
+                    .entity(Map.of("error", e.getMessage()))
+                    .build();
+        }
+    }
+    
+    /**
+     * HEAD only reads the file size: without an entity to write, a channel
+     * opened here would never be read.
+     */
+    @HEAD
+    @Path("/tts/{key}")
+    @Produces("audio/wav")
+    public Response headSpeech(@PathParam("key") String key, @Context Request request) {
+        try {
+            java.nio.file.Path file = audioService.getSpeechFile(key);
+            if (file == null) {
+                return audioNotFound();
+            }
+            
+            EntityTag etag = new EntityTag(key);
+            Response.ResponseBuilder notModified = request.evaluatePreconditions(etag);
+            if (notModified != null) {
+                return notModified.cacheControl(speechCacheControl()).build();
+            }
+            
+            return Response.ok()
+                    .tag(etag)
+                    .cacheControl(speechCacheControl())
+                    .header("Accept-Ranges", "bytes")
+                    .header(HttpHeaders.CONTENT_LENGTH, Files.size(file))
+                    .build();
+            
+        } catch (NoSuchFileException e) {
+            return audioNotFound();
+        } catch (Exception e) {
+            logger.error("Audio retrieval error", e);
+            return Response.serverError().build();
+        }
+    }
+    
+    private Response audioNotFound() {
+        return Response.status(Response.Status.NOT_FOUND)
+                .type(MediaType.APPLICATION_JSON)
+                .entity(Map.of("error", "Audio not found"))
+                .build();
+    }
+    
+    private CacheControl speechCacheControl() {
+        CacheControl cacheControl = new CacheControl();
+        cacheControl.setMaxAge(31536000);
+        cacheControl.getCacheExtension().put("immutable", null);
+        return cacheControl;
+    }
+    
+    /**
+     * Parses a single "bytes=start-end" range. Returns {start, end}, an empty
+     * array when the whole file should be sent, or null when unsatisfiable.
+     */
+    private long[] parseRange(String range, long size) {
+        if (!range.startsWith("bytes=") || range.contains(",")) {
+            return new long[0];
+        }
+        
+        String[] parts = range.substring(6).trim().split("-", 2);
+        try {
+            long start;
+            long end;
+            if (parts[0].isEmpty()) {
+                long suffix = Long.parseLong(parts[1]);
+                start = Math.max(0, size - suffix);
+                end = size - 1;
+            } else {
+                start = Long.parseLong(parts[0]);
+                end = parts.length < 2 || parts[1].isEmpty() ? size - 1 : Math.min(Long.parseLong(parts[1]), size - 1);
+            }
+            if (start >= size || start > end) {
+                return null;
+            }
+            return new long[] { start, end };
+        } catch (NumberFormatException e) {
+            return new long[0];
+        }
+    }
+    
+    private StreamingOutput transfer(FileChannel channel, long position, long count) {
+        return output -> {
+            try (channel) {
+                WritableByteChannel target = Channels.newChannel(output);
+                long offset = position;
+                long remaining = count;
+                while (remaining > 0) {
+                    long written = channel.transferTo(offset, remaining, target);
+                    if (written <= 0) {
+                        throw new IOException("Transfer stalled at offset " + offset);
+                    }
+                    offset += written;
+                    remaining -= written;
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,74 @@
+package org.mql.spring.boot.translator.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.websocket.*;
+import org.mql.spring.boot.translator.service.LiveTranslationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * WebSocket endpoint for translate-as-you-type. Clients send
+ * {"revision": n, "text": "..."} on every edit, with increasing revisions;
+ * the server answers {"type": "translation", "revision": n, ...} for the
+ * latest revision only.
+ */
+public class LiveTranslationEndpoint extends Endpoint {
+
+    private static final Logger logger = LoggerFactory.getLogger(LiveTranslationEndpoint.class);
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final LiveTranslationService liveTranslationService;
+
+    public LiveTranslationEndpoint(LiveTranslationService liveTranslationService) {
+        this.liveTranslationService = liveTranslationService;
+    }
+
+    @Override
+    public void onOpen(Session session, EndpointConfig config) {
+        liveTranslationService.open(session.getId(), message -> send(session, message));
+
+        session.addMessageHandler(String.class, payload -> {
+            try {
+                JsonNode json = objectMapper.readTree(payload);
+                JsonNode text = json.get("text");
+                if (text == null || !text.isTextual()) {
+                    send(session, Map.of("type", "error", "error", "Text is required"));
+                    return;
+                }
+                liveTranslationService.submit(session.getId(), json.path("revision").asLong(0), text.asText());
+            } catch (IOException e) {
+                send(session, Map.of("type", "error", "error", "Invalid message"));
+            }
+        });
+    }
+
+    @Override
+    public void onClose(Session session, CloseReason closeReason) {
+        liveTranslationService.close(session.getId());
+    }
+
+    @Override
+    public void onError(Session session, Throwable error) {
+        logger.warn("Live translation session {} error: {}", session.getId(), error.getMessage());
+        liveTranslationService.close(session.getId());
+    }
+
+    private void send(Session session, Map<String, Object> message) {
+        if (!session.isOpen()) {
+            return;
+        }
+        try {
+            String json = objectMapper.writeValueAsString(message);
+            synchronized (session) {
+                session.getBasicRemote().sendText(json);
+            }
+        } catch (IOException e) {
+            logger.warn("Could not send live translation to session {}", session.getId(), e);
+        }
+    }
+}
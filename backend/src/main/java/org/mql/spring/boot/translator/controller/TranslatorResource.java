@@ -1,18 +1,53 @@
 package org.mql.spring.boot.translator.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.container.Suspended;
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import org.mql.spring.boot.translator.model.DocumentTranslationResponse;
+import org.mql.spring.boot.translator.model.TranslationJob;
 import org.mql.spring.boot.translator.model.TranslationRequest;
 import org.mql.spring.boot.translator.model.TranslationResponse;
+import org.mql.spring.boot.translator.service.AuthService;
+import org.mql.spring.boot.translator.service.Deadline;
+import org.mql.spring.boot.translator.service.DocumentTranslationService;
+import org.mql.spring.boot.translator.service.LiveTranslationService;
+import org.mql.spring.boot.translator.service.RequestLogService;
+import org.mql.spring.boot.translator.service.RequestTimings;
+import org.mql.spring.boot.translator.service.TieredTranslationCache;
+import org.mql.spring.boot.translator.service.TranslationHistoryService;
+import org.mql.spring.boot.translator.service.TranslationJobService;
 import org.mql.spring.boot.translator.service.TranslationService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
 
 @Component
 @Path("/translator")
@@ -22,52 +57,484 @@ public class TranslatorResource {
     
     private static final Logger logger = LoggerFactory.getLogger(TranslatorResource.class);
     
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    
+    public static final String DEADLINE_HEADER = "X-Request-Timeout-Ms";
+    
+    // Laisse au service le temps de répondre avec son fallback avant le 504
+    private static final long DEADLINE_GRACE_MS = 250;
+    
+    @Value("${translation.default-deadline-ms:30000}")
+    private long defaultDeadlineMs;
+    
+    @Value("${translation.max-deadline-ms:120000}")
+    private long maxDeadlineMs;
+    
+    @Value("${translation.http-cache.max-age-seconds:86400}")
+    private int cacheMaxAgeSeconds;
+    
+    @Value("${translation.http-cache.max-text-chars:4000}")
+    private int cacheMaxTextChars;
+    
     @Autowired
     private TranslationService translationService;
     
+    @Autowired
+    private TranslationJobService translationJobService;
+    
+    @Autowired
+    private TranslationHistoryService translationHistoryService;
+    
+    @Autowired
+    private AuthService authService;
+    
+    @Autowired
+    private LiveTranslationService liveTranslationService;
+    
+    @Autowired
+    private DocumentTranslationService documentTranslationService;
+    
+    @Autowired
+    private RequestLogService requestLogService;
+    
+    @Autowired
+    private TieredTranslationCache translationCache;
+    
     @POST
     @Path("/translate")
-    public Response translate(TranslationRequest request) {
+    public void translate(TranslationRequest request,
+                          @HeaderParam("Authorization") String authorization,
+                          @HeaderParam(DEADLINE_HEADER) Long timeoutMs,
+                          @Suspended AsyncResponse asyncResponse) {
+        String requestId = requestLogService.nextId();
+        long start = System.nanoTime();
         try {
-            logger.info("Translation request: {}", request.getText());
-            
             // Validation
             if (request.getText() == null || request.getText().trim().isEmpty()) {
-                return Response.status(Response.Status.BAD_REQUEST)
+                asyncResponse.resume(Response.status(Response.Status.BAD_REQUEST)
                         .entity(Map.of("error", "Text is required"))
-                        .build();
+                        .build());
+                requestLogService.record(requestId, "POST /translate", "bad_request", start, null, null);
+                return;
+            }
+            
+            // Historique de l'utilisateur connecté : sert aussi de cache, sous le même
+            // tag que le cache de traduction (version du prompt, modèle)
+            String username = resolveUser(authorization);
+            String cacheTag = username == null ? null : translationService.cacheTag(request.getText());
+            if (username != null) {
+                String cached = translationHistoryService.lookup(username, request.getText(), cacheTag);
+                if (cached != null) {
+                    TranslationResponse response = new TranslationResponse(request.getText(), cached);
+                    response.setCached(true);
+                    asyncResponse.resume(Response.ok(response).build());
+                    requestLogService.record(requestId, "POST /translate", "cached", start, request.getText(), cached);
+                    return;
+                }
+            }
+            
+            translateWithinDeadline(requestId, "POST /translate", start, request, timeoutMs, asyncResponse, response -> {
+                if (username != null && !response.isFallback()) {
+                    translationHistoryService.record(username, request.getText(), cacheTag, response.getTranslatedText());
+                }
+                return Response.ok(response).build();
+            });
+            
+        } catch (Exception e) {
+            logger.error("Translation {} failed", requestId, e);
+            asyncResponse.resume(Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity(Map.of("error", String.valueOf(e.getMessage())))
+                    .build());
+            requestLogService.record(requestId, "POST /translate", "error", start, null, null);
+        }
+    }
+    
+    /**
+     * Cacheable variant of POST /translate. Long texts can be sent as {@code q},
+     * the base64url encoding of their raw-deflated UTF-8 bytes. The ETag is
+     * known before translating, so a matching {@code If-None-Match} is answered
+     * with 304 without calling LM Studio. It is weak: it identifies the
+     * translation, not the bytes of a body that also carries a timestamp.
+     */
+    @GET
+    @Path("/translate")
+    public void translateCacheable(@QueryParam("text") String text,
+                                   @QueryParam("q") String compactText,
+                                   @HeaderParam(DEADLINE_HEADER) Long timeoutMs,
+                                   @Context Request httpRequest,
+                                   @Suspended AsyncResponse asyncResponse) {
+        String requestId = requestLogService.nextId();
+        long start = System.nanoTime();
+        try {
+            if (compactText != null) {
+                text = decodeCompactText(compactText);
+            }
+            if (text == null || text.trim().isEmpty()) {
+                asyncResponse.resume(Response.status(Response.Status.BAD_REQUEST)
+                        .entity(Map.of("error", "Text is required"))
+                        .build());
+                requestLogService.record(requestId, "GET /translate", "bad_request", start, null, null);
+                return;
             }
+            if (text.length() > cacheMaxTextChars) {
+                throw new IllegalArgumentException("Text exceeds " + cacheMaxTextChars + " characters");
+            }
+            
+            // Faible : le corps porte timestamp et cached, qui changent à chaque réponse
+            EntityTag etag = new EntityTag(translationService.cacheTag(text), true);
+            CacheControl cacheControl = new CacheControl();
+            cacheControl.setMaxAge(cacheMaxAgeSeconds);
+            cacheControl.getCacheExtension().put("public", null);
             
-            // Translate
-            TranslationResponse response = translationService.translate(request);
+            Response.ResponseBuilder notModified = httpRequest.evaluatePreconditions(etag);
+            if (notModified != null) {
+                asyncResponse.resume(notModified.cacheControl(cacheControl).build());
+                requestLogService.record(requestId, "GET /translate", "not_modified", start, text, null);
+                return;
+            }
             
+            translateWithinDeadline(requestId, "GET /translate", start, new TranslationRequest(text), timeoutMs,
+                    asyncResponse, response -> {
+                // Le fallback ne doit pas rester en cache une fois LM Studio revenu
+                if (response.isFallback()) {
+                    return Response.ok(response).header("Cache-Control", "no-store").build();
+                }
+                return Response.ok(response)
+                        .tag(etag)
+                        .cacheControl(cacheControl)
+                        .build();
+            });
+            
+        } catch (IllegalArgumentException e) {
+            asyncResponse.resume(Response.status(Response.Status.BAD_REQUEST)
+                    .entity(Map.of("error", e.getMessage()))
+                    .build());
+            requestLogService.record(requestId, "GET /translate", "bad_request", start, null, null);
+        } catch (Exception e) {
+            logger.error("Translation {} failed", requestId, e);
+            asyncResponse.resume(Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity(Map.of("error", String.valueOf(e.getMessage())))
+                    .build());
+            requestLogService.record(requestId, "GET /translate", "error", start, null, null);
+        }
+    }
+    
+    /**
+     * Translates on the translation pool within the request deadline and
+     * resumes the suspended response with whatever {@code onSuccess} builds.
+     * Only the outcome that actually resumes the response is logged.
+     */
+    private void translateWithinDeadline(String requestId, String endpoint, long start,
+                                         TranslationRequest request, Long timeoutMs, AsyncResponse asyncResponse,
+                                         Function<TranslationResponse, Response> onSuccess) {
+        Deadline deadline = Deadline.afterMillis(resolveDeadlineMs(timeoutMs));
+        AtomicReference<Future<?>> translation = new AtomicReference<>();
+        RequestTimings timings = new RequestTimings();
+        
+        // Délai dépassé : on annule l'appel LM Studio. Une déconnexion du client
+        // n'est visible qu'à l'écriture de la réponse, une fois l'appel terminé :
+        // seul le délai de la requête borne le travail fait pour un client parti.
+        asyncResponse.setTimeoutHandler(suspended -> {
+            cancel(translation);
+            if (suspended.resume(Response.status(Response.Status.GATEWAY_TIMEOUT)
+                    .entity(Map.of("error", "Translation deadline exceeded"))
+                    .build())) {
+                requestLogService.record(requestId, endpoint, "timeout", start, request.getText(), null, timings);
+            }
+        });
+        asyncResponse.setTimeout(deadline.remaining().toMillis() + DEADLINE_GRACE_MS, TimeUnit.MILLISECONDS);
+        
+        try {
+            translation.set(translationService.translateAsync(request, deadline, timings, (response, error) -> {
+                if (error instanceof CancellationException) {
+                    logger.debug("Translation {} cancelled", requestId);
+                    return;
+                }
+                if (error != null) {
+                    logger.error("Translation {} failed", requestId, error);
+                    if (asyncResponse.resume(Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                            .entity(Map.of("error", String.valueOf(error.getMessage())))
+                            .build())) {
+                        requestLogService.record(requestId, endpoint, "error", start, request.getText(), null, timings);
+                    }
+                    return;
+                }
+                if (asyncResponse.resume(onSuccess.apply(response))) {
+                    requestLogService.record(requestId, endpoint, outcome(response), start,
+                            request.getText(), response.getTranslatedText(), timings);
+                }
+            }));
+        } catch (RejectedExecutionException e) {
+            asyncResponse.resume(Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                    .entity(Map.of("error", "Too many translations in progress, retry later"))
+                    .build());
+            requestLogService.record(requestId, endpoint, "rejected", start, request.getText(), null);
+        }
+    }
+    
+    private String outcome(TranslationResponse response) {
+        if (response.isFallback()) {
+            return "fallback";
+        }
+        return response.isCached() ? "cached" : "ok";
+    }
+    
+    private String decodeCompactText(String compactText) {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(Base64.getUrlDecoder().decode(compactText));
+            ByteArrayOutputStream text = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1024];
+            while (!inflater.finished()) {
+                int count = inflater.inflate(buffer);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalArgumentException("Truncated compact text");
+                }
+                text.write(buffer, 0, count);
+                if (text.size() > cacheMaxTextChars * 4) {
+                    throw new IllegalArgumentException("Text exceeds " + cacheMaxTextChars + " characters");
+                }
+            }
+            return text.toString(StandardCharsets.UTF_8);
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Invalid compact text");
+        } finally {
+            inflater.end();
+        }
+    }
+    
+    private void cancel(AtomicReference<Future<?>> translation) {
+        Future<?> future = translation.get();
+        if (future != null) {
+            future.cancel(true);
+        }
+    }
+    
+    private long resolveDeadlineMs(Long timeoutMs) {
+        if (timeoutMs == null || timeoutMs <= 0) {
+            return defaultDeadlineMs;
+        }
+        return Math.min(timeoutMs, maxDeadlineMs);
+    }
+    
+    @GET
+    @Path("/history")
+    public Response history(@HeaderParam("Authorization") String authorization,
+                            @QueryParam("cursor") Long cursor,
+                            @QueryParam("limit") @DefaultValue("20") int limit) {
+        String username = resolveUser(authorization);
+        if (username == null) {
+            return Response.status(Response.Status.UNAUTHORIZED)
+                    .entity(Map.of("error", "Valid token is required"))
+                    .build();
+        }
+        
+        return Response.ok(translationHistoryService.page(username, cursor, Math.max(1, Math.min(limit, 100)))).build();
+    }
+    
+    private String resolveUser(String authorization) {
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            return null;
+        }
+        try {
+            return authService.validateToken(authorization.substring(7).trim()).getUsername();
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+    
+    /**
+     * Translates a new version of a document, re-translating only the
+     * sentences that changed since the previous version sent with this id,
+     * all within the request deadline.
+     */
+    @PUT
+    @Path("/documents/{documentId}")
+    public Response translateDocument(@PathParam("documentId") String documentId,
+                                      @HeaderParam(DEADLINE_HEADER) Long timeoutMs,
+                                      TranslationRequest request) {
+        if (request.getText() == null || request.getText().trim().isEmpty()) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(Map.of("error", "Text is required"))
+                    .build();
+        }
+        
+        try {
+            Deadline deadline = Deadline.afterMillis(resolveDeadlineMs(timeoutMs));
+            DocumentTranslationResponse response = documentTranslationService.translate(
+                    documentId, request.getText(), deadline);
             return Response.ok(response).build();
             
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(Map.of("error", e.getMessage()))
+                    .build();
+        } catch (TimeoutException e) {
+            return Response.status(Response.Status.GATEWAY_TIMEOUT)
+                    .entity(Map.of("error", "Translation deadline exceeded"))
+                    .build();
+        } catch (RejectedExecutionException e) {
+            return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                    .header("Retry-After", 30)
+                    .entity(Map.of("error", "Too many translations in progress, retry later"))
+                    .build();
         } catch (Exception e) {
-            logger.error("Translation error", e);
+            logger.error("Document translation error", e);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity(Map.of("error", String.valueOf(e.getMessage())))
+                    .build();
+        }
+    }
+    
+    @DELETE
+    @Path("/documents/{documentId}")
+    public Response deleteDocument(@PathParam("documentId") String documentId) {
+        if (!documentTranslationService.remove(documentId)) {
+            return Response.status(Response.Status.NOT_FOUND)
+                    .entity(Map.of("error", "Document not found"))
+                    .build();
+        }
+        return Response.noContent().build();
+    }
+    
+    @POST
+    @Path("/jobs")
+    public Response submitJob(TranslationRequest request) {
+        if (request.getText() == null || request.getText().trim().isEmpty()) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(Map.of("error", "Text is required"))
+                    .build();
+        }
+        
+        try {
+            TranslationJob job = translationJobService.submit(request.getText());
+            return Response.status(Response.Status.ACCEPTED).entity(job).build();
+            
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(Map.of("error", e.getMessage()))
+                    .build();
+        } catch (RejectedExecutionException e) {
+            return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                    .header("Retry-After", 30)
                     .entity(Map.of("error", e.getMessage()))
                     .build();
         }
     }
     
+    @GET
+    @Path("/jobs/{id}")
+    public Response getJob(@PathParam("id") String id) {
+        TranslationJob job = translationJobService.get(id);
+        if (job == null) {
+            return jobNotFound();
+        }
+        return Response.ok(job).build();
+    }
+    
+    @DELETE
+    @Path("/jobs/{id}")
+    public Response cancelJob(@PathParam("id") String id) {
+        TranslationJob job = translationJobService.cancel(id);
+        if (job == null) {
+            return jobNotFound();
+        }
+        return Response.ok(job).build();
+    }
+    
+    /**
+     * Server-sent events for a job: "progress" events carry the text translated
+     * since the previous event, a final "done" event carries the job status.
+     */
+    @GET
+    @Path("/jobs/{id}/events")
+    @Produces("text/event-stream")
+    public Response jobEvents(@PathParam("id") String id) {
+        if (translationJobService.get(id) == null) {
+            return jobNotFound();
+        }
+        
+        StreamingOutput stream = output -> {
+            long version = 0;
+            int sent = 0;
+            try {
+                while (true) {
+                    version = translationJobService.awaitChange(id, version, 15000);
+                    TranslationJob job = translationJobService.get(id);
+                    if (version < 0 || job == null) {
+                        return;
+                    }
+                    
+                    String text = job.getTranslatedText();
+                    Map<String, Object> progress = new LinkedHashMap<>();
+                    progress.put("status", job.getStatus());
+                    progress.put("completedSegments", job.getCompletedSegments());
+                    progress.put("totalSegments", job.getTotalSegments());
+                    progress.put("delta", text.substring(Math.min(sent, text.length())));
+                    sent = text.length();
+                    writeEvent(output, "progress", progress);
+                    
+                    if (job.isFinished()) {
+                        job.setTranslatedText(null);
+                        writeEvent(output, "done", job);
+                        return;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        
+        return Response.ok(stream)
+                .header("Cache-Control", "no-cache")
+                .header("X-Accel-Buffering", "no")
+                .build();
+    }
+    
+    private void writeEvent(OutputStream output, String event, Object data) throws IOException {
+        String frame = "event: " + event + "\ndata: " + objectMapper.writeValueAsString(data) + "\n\n";
+        output.write(frame.getBytes(StandardCharsets.UTF_8));
+        output.flush();
+    }
+    
+    private Response jobNotFound() {
+        return Response.status(Response.Status.NOT_FOUND)
+                .type(MediaType.APPLICATION_JSON)
+                .entity(Map.of("error", "Job not found"))
+                .build();
+    }
+    
     @GET
     @Path("/health")
     public Response health() {
-        return Response.ok(Map.of(
-                "status", "UP",
-                "service", "Darija Translator",
-                "timestamp", System.currentTimeMillis()
-        )).build();
+        Map<String, Object> health = new LinkedHashMap<>();
+        health.put("status", "UP");
+        health.put("service", "Darija Translator");
+        health.put("timestamp", System.currentTimeMillis());
+        health.put("jobs", translationJobService.getStats());
+        health.put("history", translationHistoryService.getStats());
+        health.put("live", liveTranslationService.getStats());
+        health.put("documents", documentTranslationService.getStats());
+        health.put("cancelledUpstreamCalls", translationService.getCancelledUpstreamCalls());
+        health.put("tiers", translationService.getTierStats());
+        health.put("requestLog", requestLogService.getStats());
+        health.put("cache", translationCache.getStats());
+        
+        // État en direct : jamais servi depuis un cache
+        return Response.ok(health).header("Cache-Control", "no-store").build();
     }
     
     @GET
     @Path("/languages")
     public Response getLanguages() {
+        CacheControl cacheControl = new CacheControl();
+        cacheControl.setMaxAge(86400);
+        cacheControl.getCacheExtension().put("public", null);
+        
         return Response.ok(Map.of(
                 "source", List.of("en"),
                 "target", List.of("darija"),
                 "description", "English to Moroccan Darija"
-        )).build();
+        )).cacheControl(cacheControl).build();
     }
 }
\ No newline at end of file
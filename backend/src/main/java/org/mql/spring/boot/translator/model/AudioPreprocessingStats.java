@@ -0,0 +1,95 @@
+package org.mql.spring.boot.translator.model;
+
+public class AudioPreprocessingStats {
+    private boolean applied;
+    private String inputFormat;
+    private String outputFormat;
+    private long inputBytes;
+    private long outputBytes;
+    private long inputDurationMs;
+    private long outputDurationMs;
+    private long processingTimeMs;
+    private boolean truncated;
+
+    public AudioPreprocessingStats() {}
+
+    public boolean isApplied() {
+        return applied;
+    }
+
+    public void setApplied(boolean applied) {
+        this.applied = applied;
+    }
+
+    public String getInputFormat() {
+        return inputFormat;
+    }
+
+    public void setInputFormat(String inputFormat) {
+        this.inputFormat = inputFormat;
+    }
+
+    public String getOutputFormat() {
+        return outputFormat;
+    }
+
+    public void setOutputFormat(String outputFormat) {
+        this.outputFormat = outputFormat;
+    }
+
+    public long getInputBytes() {
+        return inputBytes;
+    }
+
+    public void setInputBytes(long inputBytes) {
+        this.inputBytes = inputBytes;
+    }
+
+    public long getOutputBytes() {
+        return outputBytes;
+    }
+
+    public void setOutputBytes(long outputBytes) {
+        this.outputBytes = outputBytes;
+    }
+
+    public long getInputDurationMs() {
+        return inputDurationMs;
+    }
+
+    public void setInputDurationMs(long inputDurationMs) {
+        this.inputDurationMs = inputDurationMs;
+    }
+
+    public long getOutputDurationMs() {
+        return outputDurationMs;
+    }
+
+    public void setOutputDurationMs(long outputDurationMs) {
+        this.outputDurationMs = outputDurationMs;
+    }
+
+    public long getProcessingTimeMs() {
+        return processingTimeMs;
+    }
+
+    public void setProcessingTimeMs(long processingTimeMs) {
+        this.processingTimeMs = processingTimeMs;
+    }
+
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    public void setTruncated(boolean truncated) {
+        this.truncated = truncated;
+    }
+
+    public double getByteReduction() {
+        return outputBytes == 0 ? 0 : (double) inputBytes / outputBytes;
+    }
+
+    public double getDurationReduction() {
+        return outputDurationMs == 0 ? 0 : (double) inputDurationMs / outputDurationMs;
+    }
+}
@@ -0,0 +1,76 @@
+package org.mql.spring.boot.translator.model;
+
+import java.util.List;
+
+public class DocumentTranslationResponse {
+    private String documentId;
+    private long version;
+    private String translatedText;
+    private List<String> translatedSegments;
+    private List<Integer> changedSegments;
+    private int reusedSegments;
+    private long timeMs;
+
+    public DocumentTranslationResponse() {}
+
+    public DocumentTranslationResponse(String documentId, long version) {
+        this.documentId = documentId;
+        this.version = version;
+    }
+
+    public String getDocumentId() {
+        return documentId;
+    }
+
+    public void setDocumentId(String documentId) {
+        this.documentId = documentId;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public String getTranslatedText() {
+        return translatedText;
+    }
+
+    public void setTranslatedText(String translatedText) {
+        this.translatedText = translatedText;
+    }
+
+    public List<String> getTranslatedSegments() {
+        return translatedSegments;
+    }
+
+    public void setTranslatedSegments(List<String> translatedSegments) {
+        this.translatedSegments = translatedSegments;
+    }
+
+    public List<Integer> getChangedSegments() {
+        return changedSegments;
+    }
+
+    public void setChangedSegments(List<Integer> changedSegments) {
+        this.changedSegments = changedSegments;
+    }
+
+    public int getReusedSegments() {
+        return reusedSegments;
+    }
+
+    public void setReusedSegments(int reusedSegments) {
+        this.reusedSegments = reusedSegments;
+    }
+
+    public long getTimeMs() {
+        return timeMs;
+    }
+
+    public void setTimeMs(long timeMs) {
+        this.timeMs = timeMs;
+    }
+}
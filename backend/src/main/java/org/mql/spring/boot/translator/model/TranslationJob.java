@@ -0,0 +1,106 @@
+package org.mql.spring.boot.translator.model;
+
+public class TranslationJob {
+    public static final String QUEUED = "QUEUED";
+    public static final String RUNNING = "RUNNING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String FAILED = "FAILED";
+    public static final String CANCELLED = "CANCELLED";
+
+    private String id;
+    private String status;
+    private int totalSegments;
+    private int completedSegments;
+    private String translatedText;
+    private String error;
+    private long createdAt;
+    private long startedAt;
+    private long completedAt;
+
+    public TranslationJob() {
+        this.createdAt = System.currentTimeMillis();
+    }
+
+    public TranslationJob(String id, int totalSegments) {
+        this();
+        this.id = id;
+        this.totalSegments = totalSegments;
+        this.status = QUEUED;
+    }
+
+    public boolean isFinished() {
+        return COMPLETED.equals(status) || FAILED.equals(status) || CANCELLED.equals(status);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public int getTotalSegments() {
+        return totalSegments;
+    }
+
+    public void setTotalSegments(int totalSegments) {
+        this.totalSegments = totalSegments;
+    }
+
+    public int getCompletedSegments() {
+        return completedSegments;
+    }
+
+    public void setCompletedSegments(int completedSegments) {
+        this.completedSegments = completedSegments;
+    }
+
+    public String getTranslatedText() {
+        return translatedText;
+    }
+
+    public void setTranslatedText(String translatedText) {
+        this.translatedText = translatedText;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(long createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(long startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public long getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(long completedAt) {
+        this.completedAt = completedAt;
+    }
+}
@@ -6,6 +6,8 @@ public class TranslationResponse {
     private String sourceLang;
     private String targetLang;
     private long timestamp;
+    private boolean fallback;
+    private boolean cached;
 
     public TranslationResponse() {
         this.timestamp = System.currentTimeMillis();
@@ -58,4 +60,20 @@ public class TranslationResponse {
     public void setTimestamp(long timestamp) {
         this.timestamp = timestamp;
     }
+
+    public boolean isFallback() {
+        return fallback;
+    }
+
+    public void setFallback(boolean fallback) {
+        this.fallback = fallback;
+    }
+
+    public boolean isCached() {
+        return cached;
+    }
+
+    public void setCached(boolean cached) {
+        this.cached = cached;
+    }
 }
\ No newline at end of file
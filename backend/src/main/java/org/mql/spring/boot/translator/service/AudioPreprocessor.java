@@ -0,0 +1,279 @@
+package org.mql.spring.boot.translator.service;
+
+import org.mql.spring.boot.translator.model.AudioPreprocessingStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sound.sampled.*;
+import java.io.*;
+
+/**
+ * Streaming preprocessing applied to recorded audio before speech-to-text:
+ * WAV/PCM decode, stereo to mono downmix, resampling to the STT sample rate
+ * and energy-based trimming of leading, trailing and long inner silences.
+ * Audio is read in fixed-size chunks and every buffer is allocated once per request;
+ * the processed output stops at {@code audio.preprocess.max-duration-ms}, the
+ * longest audio the speech-to-text step accepts.
+ */
+@Component
+public class AudioPreprocessor {
+
+    private static final Logger logger = LoggerFactory.getLogger(AudioPreprocessor.class);
+
+    @Value("${audio.preprocess.enabled:true}")
+    private boolean enabled;
+
+    @Value("${audio.preprocess.target-sample-rate:16000}")
+    private int targetSampleRate;
+
+    @Value("${audio.preprocess.chunk-frames:4096}")
+    private int chunkFrames;
+
+    @Value("${audio.preprocess.vad-frame-ms:20}")
+    private int vadFrameMs;
+
+    @Value("${audio.preprocess.silence-threshold-db:-40}")
+    private double silenceThresholdDb;
+
+    @Value("${audio.preprocess.padding-ms:200}")
+    private int paddingMs;
+
+    @Value("${audio.preprocess.max-duration-ms:60000}")
+    private long maxDurationMs;
+
+    public byte[] preprocess(byte[] audioData, AudioPreprocessingStats stats) {
+        long start = System.nanoTime();
+        stats.setInputBytes(audioData.length);
+
+        if (!enabled) {
+            return passThrough(audioData, stats, start);
+        }
+
+        try (AudioInputStream source = AudioSystem.getAudioInputStream(new ByteArrayInputStream(audioData))) {
+            AudioFormat sourceFormat = source.getFormat();
+            stats.setInputFormat(describe(sourceFormat));
+
+            int channels = sourceFormat.getChannels();
+            AudioFormat pcmFormat = new AudioFormat(
+                    AudioFormat.Encoding.PCM_SIGNED,
+                    sourceFormat.getSampleRate(), 16, channels, channels * 2,
+                    sourceFormat.getSampleRate(), false);
+
+            try (AudioInputStream pcm = AudioSystem.getAudioInputStream(pcmFormat, source)) {
+                Pipeline pipeline = new Pipeline(pcmFormat);
+                pipeline.run(pcm);
+
+                AudioFormat outputFormat = new AudioFormat(targetSampleRate, 16, 1, true, false);
+                byte[] samples = pipeline.output.toByteArray();
+                ByteArrayOutputStream wav = new ByteArrayOutputStream(samples.length + 44);
+                AudioSystem.write(
+                        new AudioInputStream(new ByteArrayInputStream(samples), outputFormat, samples.length / 2),
+                        AudioFileFormat.Type.WAVE, wav);
+
+                stats.setApplied(true);
+                stats.setTruncated(pipeline.truncated);
+                stats.setOutputFormat(describe(outputFormat));
+                stats.setInputDurationMs((long) (pipeline.framesRead * 1000 / sourceFormat.getSampleRate()));
+                stats.setOutputDurationMs(samples.length / 2 * 1000L / targetSampleRate);
+                stats.setOutputBytes(wav.size());
+                stats.setProcessingTimeMs((System.nanoTime() - start) / 1_000_000);
+
+                logger.info("Audio preprocessed: {} bytes / {} ms -> {} bytes / {} ms in {} ms{}",
+                        stats.getInputBytes(), stats.getInputDurationMs(),
+                        stats.getOutputBytes(), stats.getOutputDurationMs(), stats.getProcessingTimeMs(),
+                        pipeline.truncated ? " (truncated)" : "");
+                return wav.toByteArray();
+            }
+
+        } catch (UnsupportedAudioFileException | IllegalArgumentException e) {
+            logger.warn("Audio format not supported for preprocessing, passing through: {}", e.getMessage());
+            return passThrough(audioData, stats, start);
+        } catch (IOException e) {
+            logger.error("Audio preprocessing failed, passing through", e);
+            return passThrough(audioData, stats, start);
+        }
+    }
+
+    private byte[] passThrough(byte[] audioData, AudioPreprocessingStats stats, long start) {
+        stats.setApplied(false);
+        stats.setOutputBytes(audioData.length);
+        stats.setProcessingTimeMs((System.nanoTime() - start) / 1_000_000);
+        return audioData;
+    }
+
+    private String describe(AudioFormat format) {
+        return "%s %d Hz, %d-bit, %d ch".formatted(
+                format.getEncoding(), (int) format.getSampleRate(),
+                format.getSampleSizeInBits(), format.getChannels());
+    }
+
+    /**
+     * Per-request state. Reads chunks of {@code chunkFrames} frames, downmixes them,
+     * resamples by linear interpolation (low-passed first when decimating) and feeds
+     * fixed-length VAD frames. Silent frames are kept in a ring of {@code paddingMs}
+     * so speech onsets are not clipped; after speech, {@code paddingMs} of hangover is kept.
+     * Reading stops once the output holds {@code maxDurationMs} of audio.
+     */
+    private final class Pipeline {
+        private final int channels;
+        private final double step;
+        private final double lowPassAlpha;
+
+        private final byte[] readBuffer;
+        private final float[] mono;
+        private final short[] vadFrame;
+        private final byte[] writeBuffer;
+        private final short[][] ring;
+        private final double thresholdRms;
+
+        private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        private final long maxOutputBytes;
+        private long framesRead;
+        private boolean truncated;
+
+        private double position;
+        private float previous;
+        private float lowPass1;
+        private float lowPass2;
+
+        private int vadFill;
+        private int ringStart;
+        private int ringCount;
+        private int hangover;
+        private boolean speechStarted;
+
+        Pipeline(AudioFormat pcmFormat) {
+            this.channels = pcmFormat.getChannels();
+            this.step = pcmFormat.getSampleRate() / targetSampleRate;
+            this.lowPassAlpha = step > 1
+                    ? 1 - Math.exp(-2 * Math.PI * (targetSampleRate * 0.45) / pcmFormat.getSampleRate())
+                    : 1;
+
+            int vadLength = Math.max(1, targetSampleRate * vadFrameMs / 1000);
+            int paddingFrames = Math.max(0, paddingMs / Math.max(1, vadFrameMs));
+
+            this.readBuffer = new byte[chunkFrames * pcmFormat.getFrameSize()];
+            this.mono = new float[chunkFrames];
+            this.vadFrame = new short[vadLength];
+            this.writeBuffer = new byte[vadLength * 2];
+            this.ring = new short[paddingFrames][vadLength];
+            this.thresholdRms = 32768 * Math.pow(10, silenceThresholdDb / 20);
+            this.maxOutputBytes = targetSampleRate * 2L * maxDurationMs / 1000;
+        }
+
+        void run(AudioInputStream pcm) throws IOException {
+            int frameSize = channels * 2;
+            int pending = 0;
+            int read;
+            while (!truncated && (read = pcm.read(readBuffer, pending, readBuffer.length - pending)) != -1) {
+                int available = pending + read;
+                int frames = available / frameSize;
+                if (frames == 0) {
+                    pending = available;
+                    continue;
+                }
+                downmix(frames);
+                resample(frames);
+                framesRead += frames;
+
+                pending = available - frames * frameSize;
+                if (pending > 0) {
+                    System.arraycopy(readBuffer, frames * frameSize, readBuffer, 0, pending);
+                }
+            }
+            if (vadFill > 0 && !truncated) {
+                onVadFrame(vadFill);
+            }
+        }
+
+        private void downmix(int frames) {
+            int offset = 0;
+            for (int i = 0; i < frames; i++) {
+                int sum = 0;
+                for (int c = 0; c < channels; c++) {
+                    sum += (short) ((readBuffer[offset] & 0xFF) | (readBuffer[offset + 1] << 8));
+                    offset += 2;
+                }
+                float sample = (float) sum / channels;
+                if (lowPassAlpha < 1) {
+                    lowPass1 += lowPassAlpha * (sample - lowPass1);
+                    lowPass2 += lowPassAlpha * (lowPass1 - lowPass2);
+                    sample = lowPass2;
+                }
+                mono[i] = sample;
+            }
+        }
+
+        private void resample(int count) {
+            while (position <= count - 1) {
+                int index = (int) Math.floor(position);
+                double fraction = position - index;
+                float a = index < 0 ? previous : mono[index];
+                float b = index + 1 < count ? mono[index + 1] : a;
+                emitSample((float) (a + (b - a) * fraction));
+                position += step;
+            }
+            position -= count;
+            previous = mono[count - 1];
+        }
+
+        private void emitSample(float sample) {
+            int value = Math.round(sample);
+            vadFrame[vadFill++] = (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, value));
+            if (vadFill == vadFrame.length) {
+                onVadFrame(vadFill);
+                vadFill = 0;
+            }
+        }
+
+        private void onVadFrame(int length) {
+            double energy = 0;
+            for (int i = 0; i < length; i++) {
+                energy += (double) vadFrame[i] * vadFrame[i];
+            }
+            boolean voiced = Math.sqrt(energy / length) >= thresholdRms;
+
+            if (voiced) {
+                flushRing();
+                write(vadFrame, length);
+                hangover = ring.length;
+                speechStarted = true;
+            } else if (speechStarted && hangover > 0) {
+                write(vadFrame, length);
+                hangover--;
+            } else if (ring.length > 0) {
+                int slot = (ringStart + ringCount) % ring.length;
+                System.arraycopy(vadFrame, 0, ring[slot], 0, length);
+                if (ringCount < ring.length) {
+                    ringCount++;
+                } else {
+                    ringStart = (ringStart + 1) % ring.length;
+                }
+            }
+        }
+
+        private void flushRing() {
+            for (int i = 0; i < ringCount; i++) {
+                write(ring[(ringStart + i) % ring.length], vadFrame.length);
+            }
+            ringStart = 0;
+            ringCount = 0;
+        }
+
+        private void write(short[] samples, int length) {
+            long room = (maxOutputBytes - output.size()) / 2;
+            if (length > room) {
+                // Au-delà de la durée acceptée par la STT : le reste ne serait jamais transcrit
+                length = (int) Math.max(0, room);
+                truncated = true;
+            }
+            for (int i = 0; i < length; i++) {
+                writeBuffer[2 * i] = (byte) samples[i];
+                writeBuffer[2 * i + 1] = (byte) (samples[i] >> 8);
+            }
+            output.write(writeBuffer, 0, length * 2);
+        }
+    }
+}
@@ -1,11 +1,14 @@
 package org.mql.spring.boot.translator.service;
 
+import org.mql.spring.boot.translator.model.AudioPreprocessingStats;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.sound.sampled.*;
 import java.io.*;
+import java.nio.file.Path;
 import java.util.Base64;
 
 @Service
@@ -13,16 +16,50 @@ public class AudioService {
     
     private static final Logger logger = LoggerFactory.getLogger(AudioService.class);
     
+    private static final String PLACEHOLDER_WAV = "UklGRiQAAABXQVZFZm10IBAAAAABAAEAQB8AAEAfAAABAAgAZGF0YQAAAAA=";
+    
+    private final AudioPreprocessor audioPreprocessor;
+    private final TtsCache ttsCache;
+    
+    @Value("${audio.tts.voice:default}")
+    private String defaultVoice;
+    
+    public AudioService(AudioPreprocessor audioPreprocessor, TtsCache ttsCache) {
+        this.audioPreprocessor = audioPreprocessor;
+        this.ttsCache = ttsCache;
+    }
+    
     public String speechToText(byte[] audioData) {
-        logger.info("Processing speech-to-text for {} bytes", audioData.length);
+        return speechToText(audioData, new AudioPreprocessingStats());
+    }
+    
+    public String speechToText(byte[] audioData, AudioPreprocessingStats stats) {
+        // Decode, mono 16 kHz, silences coupés avant le moteur STT
+        byte[] processed = audioPreprocessor.preprocess(audioData, stats);
+        logger.info("Processing speech-to-text for {} bytes ({} bytes received)", processed.length, audioData.length);
         return "[Audio transcription would appear here - Integrate with Google Speech API or Whisper]";
     }
     
+    /**
+     * Returns the cache key of the synthesized audio, synthesizing it only
+     * when this (text, language, voice) has not been spoken before.
+     */
     public String textToSpeech(String text, String language) {
-        logger.info("Converting text to speech: {} (language: {})", text, language);
+        return textToSpeech(text, language, defaultVoice);
+    }
+    
+    public String textToSpeech(String text, String language, String voice) {
+        String key = ttsCache.key(text, language, voice);
+        if (ttsCache.contains(key)) {
+            logger.debug("TTS cache hit: {}", key);
+            return key;
+        }
+        
+        logger.info("Converting text to speech: {} chars (language: {})", text.length(), language);
         
         try {
-            return "data:audio/wav;base64,UklGRiQAAABXQVZFZm10IBAAAAABAAEAQB8AAEAfAAABAAgAZGF0YQAAAAA=";
+            ttsCache.put(key, synthesize(text, language, voice));
+            return key;
             
         } catch (Exception e) {
             logger.error("Text-to-speech failed", e);
@@ -30,6 +67,17 @@ public class AudioService {
         }
     }
     
+    public Path getSpeechFile(String key) {
+        if (!ttsCache.isValidKey(key)) {
+            return null;
+        }
+        return ttsCache.get(key);
+    }
+    
+    private byte[] synthesize(String text, String language, String voice) {
+        return Base64.getDecoder().decode(PLACEHOLDER_WAV);
+    }
+    
     public boolean isValidAudioFormat(byte[] audioData) {
         if (audioData == null || audioData.length < 44) {
             return false;
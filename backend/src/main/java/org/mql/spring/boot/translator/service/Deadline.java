@@ -0,0 +1,37 @@
+package org.mql.spring.boot.translator.service;
+
+import java.time.Duration;
+
+/**
+ * Absolute time budget of a translate request, shared by the first LM Studio
+ * call, the retries and the fallback.
+ */
+public final class Deadline {
+
+    private final long expiresAtNanos;
+
+    private Deadline(long expiresAtNanos) {
+        this.expiresAtNanos = expiresAtNanos;
+    }
+
+    public static Deadline afterMillis(long millis) {
+        return new Deadline(System.nanoTime() + millis * 1_000_000);
+    }
+
+    public Duration remaining() {
+        return Duration.ofNanos(Math.max(0, expiresAtNanos - System.nanoTime()));
+    }
+
+    public boolean isExpired() {
+        return expiresAtNanos - System.nanoTime() <= 0;
+    }
+
+    /**
+     * A share of the remaining time, after keeping {@code reserve} aside for
+     * whatever must still run once this step gives up.
+     */
+    public Duration budget(double share, Duration reserve) {
+        long available = remaining().minus(reserve).toNanos();
+        return Duration.ofNanos(Math.max(0, (long) (available * share)));
+    }
+}
@@ -0,0 +1,275 @@
+package org.mql.spring.boot.translator.service;
+
+import org.mql.spring.boot.translator.model.DocumentTranslationResponse;
+import org.mql.spring.boot.translator.model.TranslationRequest;
+import org.mql.spring.boot.translator.model.TranslationResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Incremental translation of documents that are edited and resubmitted.
+ * For each document id the translation of every sentence of the previous
+ * version is kept; a new version only sends sentences that are new or edited
+ * to the LLM and reuses the rest, so latency follows the size of the edit.
+ * The sentences and translations kept for all documents are capped by
+ * {@code documents.max-retained-chars}; least recently used documents are
+ * dropped first.
+ */
+@Service
+public class DocumentTranslationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentTranslationService.class);
+
+    // Laisse aux segments le temps de rendre leur fallback avant d'abandonner
+    private static final long DEADLINE_GRACE_MS = 250;
+
+    private final TranslationService translationService;
+    private final int maxTextChars;
+    private final int parallelSegments;
+    private final long maxRetainedChars;
+    private final Map<String, DocumentState> documents;
+
+    // Protégé par le verrou de documents
+    private long retainedChars;
+
+    public DocumentTranslationService(TranslationService translationService,
+                                      @Value("${documents.max-sessions:1000}") int maxSessions,
+                                      @Value("${documents.max-text-chars:200000}") int maxTextChars,
+                                      @Value("${documents.parallel-segments:4}") int parallelSegments,
+                                      @Value("${documents.max-retained-chars:20000000}") long maxRetainedChars) {
+        this.translationService = translationService;
+        this.maxTextChars = maxTextChars;
+        this.parallelSegments = Math.max(1, parallelSegments);
+        this.maxRetainedChars = maxRetainedChars;
+        this.documents = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, DocumentState> eldest) {
+                if (size() > maxSessions) {
+                    release(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Translates a new version of the document within one request deadline.
+     * New and edited sentences are translated on the translation pool, a few
+     * at a time; unchanged sentences reuse the previous version's translation.
+     *
+     * @throws TimeoutException when the deadline passes before every changed
+     *                          sentence is translated; the document is left
+     *                          at its previous version
+     */
+    public DocumentTranslationResponse translate(String documentId, String text, Deadline deadline)
+            throws TimeoutException {
+        if (text.length() > maxTextChars) {
+            throw new IllegalArgumentException("Text exceeds " + maxTextChars + " characters");
+        }
+
+        DocumentState state;
+        synchronized (documents) {
+            state = documents.computeIfAbsent(documentId, id -> new DocumentState());
+        }
+
+        synchronized (state) {
+            long start = System.nanoTime();
+            List<String> segments = SentenceSplitter.split(text);
+
+            // Phrases nouvelles ou modifiées, chacune traduite une seule fois
+            Set<String> missing = new LinkedHashSet<>();
+            for (String segment : segments) {
+                String source = segment.strip();
+                if (!source.isEmpty() && !state.translations.containsKey(source)) {
+                    missing.add(source);
+                }
+            }
+            Map<String, TranslationResponse> fresh = translateAll(missing, deadline);
+
+            Map<String, String> translations = new HashMap<>();
+            List<String> translatedSegments = new ArrayList<>(segments.size());
+            List<Integer> changed = new ArrayList<>();
+            int reused = 0;
+            StringBuilder merged = new StringBuilder();
+
+            // Compté par position : une phrase répétée est traduite une fois mais
+            // chacune de ses occurrences est nouvelle (ou réutilisée)
+            for (int i = 0; i < segments.size(); i++) {
+                String segment = segments.get(i);
+                String source = segment.strip();
+                String translated = "";
+
+                if (!source.isEmpty()) {
+                    translated = state.translations.get(source);
+                    if (translated != null) {
+                        reused++;
+                        translations.put(source, translated);
+                    } else {
+                        TranslationResponse response = fresh.get(source);
+                        translated = response.getTranslatedText();
+                        changed.add(i);
+                        // Un fallback n'est pas gardé : la phrase sera retraduite à la prochaine version
+                        if (!response.isFallback()) {
+                            translations.put(source, translated);
+                        }
+                    }
+                }
+
+                translatedSegments.add(translated);
+                merged.append(translated).append(SentenceSplitter.separatorOf(segment));
+            }
+
+            state.translations = translations;
+            state.version++;
+            retain(documentId, state, translations);
+
+            DocumentTranslationResponse response = new DocumentTranslationResponse(documentId, state.version);
+            response.setTranslatedText(merged.toString());
+            response.setTranslatedSegments(translatedSegments);
+            response.setChangedSegments(changed);
+            response.setReusedSegments(reused);
+            response.setTimeMs((System.nanoTime() - start) / 1_000_000);
+
+            logger.info("Document {} v{}: {} segments, {} changed ({} distinct sentences translated), {} reused in {} ms",
+                    documentId, state.version, segments.size(), changed.size(), fresh.size(),
+                    reused, response.getTimeMs());
+            return response;
+        }
+    }
+
+    /**
+     * Keeps at most {@code parallelSegments} sentences in flight on the
+     * translation pool. Anything still running when this returns abnormally
+     * (deadline, rejection, interrupt) is cancelled.
+     */
+    private Map<String, TranslationResponse> translateAll(Collection<String> sources, Deadline deadline)
+            throws TimeoutException {
+        Map<String, TranslationResponse> results = new HashMap<>();
+        Deque<PendingSegment> inFlight = new ArrayDeque<>();
+        try {
+            for (String source : sources) {
+                if (inFlight.size() >= parallelSegments) {
+                    await(inFlight.peek(), results, deadline);
+                    inFlight.poll();
+                }
+                inFlight.add(new PendingSegment(source, deadline));
+            }
+            while (!inFlight.isEmpty()) {
+                await(inFlight.peek(), results, deadline);
+                inFlight.poll();
+            }
+            return results;
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Document translation interrupted");
+        } finally {
+            inFlight.forEach(PendingSegment::cancel);
+        }
+    }
+
+    private void await(PendingSegment pending, Map<String, TranslationResponse> results, Deadline deadline)
+            throws InterruptedException, TimeoutException {
+        try {
+            long waitMs = deadline.remaining().toMillis() + DEADLINE_GRACE_MS;
+            results.put(pending.source, pending.result.get(waitMs, TimeUnit.MILLISECONDS));
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new RuntimeException(e.getCause());
+        }
+    }
+
+    public boolean remove(String documentId) {
+        synchronized (documents) {
+            DocumentState state = documents.remove(documentId);
+            if (state == null) {
+                return false;
+            }
+            release(state);
+            return true;
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        synchronized (documents) {
+            return Map.of(
+                    "documents", documents.size(),
+                    "retainedChars", retainedChars,
+                    "maxRetainedChars", maxRetainedChars);
+        }
+    }
+
+    /**
+     * Accounts for the new version's sentences and translations, then drops
+     * least recently used documents while the total is over the cap. The
+     * document just translated is kept even when it alone exceeds the cap.
+     */
+    private void retain(String documentId, DocumentState state, Map<String, String> translations) {
+        long chars = 0;
+        for (Map.Entry<String, String> entry : translations.entrySet()) {
+            chars += entry.getKey().length() + entry.getValue().length();
+        }
+
+        synchronized (documents) {
+            if (state.released) {
+                // Supprimé ou évincé pendant la traduction : plus rien à compter
+                return;
+            }
+            retainedChars += chars - state.retained;
+            state.retained = chars;
+
+            Iterator<Map.Entry<String, DocumentState>> iterator = documents.entrySet().iterator();
+            while (retainedChars > maxRetainedChars && iterator.hasNext()) {
+                Map.Entry<String, DocumentState> eldest = iterator.next();
+                if (eldest.getKey().equals(documentId)) {
+                    continue;
+                }
+                release(eldest.getValue());
+                iterator.remove();
+                logger.debug("Evicted document {}", eldest.getKey());
+            }
+        }
+    }
+
+    // Appelé sous le verrou de documents
+    private void release(DocumentState state) {
+        retainedChars -= state.retained;
+        state.retained = 0;
+        state.released = true;
+    }
+
+    private final class PendingSegment {
+        private final String source;
+        private final CompletableFuture<TranslationResponse> result = new CompletableFuture<>();
+        private final Future<?> task;
+
+        PendingSegment(String source, Deadline deadline) {
+            this.source = source;
+            this.task = translationService.translateAsync(new TranslationRequest(source), deadline,
+                    (response, error) -> {
+                        if (error != null) {
+                            result.completeExceptionally(error);
+                        } else {
+                            result.complete(response);
+                        }
+                    });
+        }
+
+        void cancel() {
+            task.cancel(true);
+        }
+    }
+
+    private static final class DocumentState {
+        private Map<String, String> translations = new HashMap<>();
+        private long version;
+        // Protégés par le verrou de documents
+        private long retained;
+        private boolean released;
+    }
+}
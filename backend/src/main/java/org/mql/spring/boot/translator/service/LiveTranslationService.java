@@ -0,0 +1,217 @@
+package org.mql.spring.boot.translator.service;
+
+import jakarta.annotation.PreDestroy;
+import org.mql.spring.boot.translator.model.TranslationRequest;
+import org.mql.spring.boot.translator.model.TranslationResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Translate-as-you-type. Each live connection keeps only its latest text:
+ * input is debounced, and a newer revision cancels both the pending debounce
+ * and the in-flight translation, whose interrupted WebClient call disposes the
+ * upstream request so LM Studio stops generating for superseded text.
+ * Translations run on a bounded pool; when it is full, or a translation fails,
+ * the client gets an error message for that revision.
+ */
+@Service
+public class LiveTranslationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LiveTranslationService.class);
+
+    private final TranslationService translationService;
+    private final ScheduledExecutorService scheduler;
+    private final ThreadPoolExecutor workers;
+    private final Map<String, LiveSession> sessions = new ConcurrentHashMap<>();
+
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong translated = new AtomicLong();
+    private final AtomicLong superseded = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    @Value("${live.debounce-ms:300}")
+    private long debounceMs;
+
+    @Value("${live.max-text-chars:2000}")
+    private int maxTextChars;
+
+    public LiveTranslationService(TranslationService translationService,
+                                  @Value("${live.workers:4}") int workers,
+                                  @Value("${live.queue-capacity:100}") int queueCapacity) {
+        this.translationService = translationService;
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "live-debounce");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        AtomicInteger counter = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread thread = new Thread(r, "live-translation-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    public void open(String sessionId, Consumer<Map<String, Object>> sender) {
+        sessions.put(sessionId, new LiveSession(sender));
+    }
+
+    public void close(String sessionId) {
+        LiveSession session = sessions.remove(sessionId);
+        if (session != null) {
+            synchronized (session) {
+                cancelPending(session);
+            }
+        }
+    }
+
+    public void submit(String sessionId, long revision, String text) {
+        LiveSession session = sessions.get(sessionId);
+        if (session == null) {
+            return;
+        }
+        received.incrementAndGet();
+
+        if (text.length() > maxTextChars) {
+            sendError(session, revision, "Text exceeds " + maxTextChars + " characters");
+            return;
+        }
+
+        synchronized (session) {
+            if (revision <= session.latestRevision) {
+                return;
+            }
+            session.latestRevision = revision;
+            cancelPending(session);
+
+            if (text.isBlank()) {
+                return;
+            }
+            session.debounce = scheduler.schedule(
+                    () -> startTranslation(session, revision, text), debounceMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        return Map.of(
+                "sessions", sessions.size(),
+                "received", received.get(),
+                "translated", translated.get(),
+                "superseded", superseded.get(),
+                "rejected", rejected.get(),
+                "failed", failed.get());
+    }
+
+    private void startTranslation(LiveSession session, long revision, String text) {
+        synchronized (session) {
+            if (revision != session.latestRevision) {
+                return;
+            }
+            try {
+                session.inFlight = workers.submit(() -> translate(session, revision, text));
+                return;
+            } catch (RejectedExecutionException e) {
+                rejected.incrementAndGet();
+            }
+        }
+        // Pool plein : le client garde son texte et réessaiera à la prochaine frappe
+        sendError(session, revision, "Live translation is busy, please retry");
+    }
+
+    private void translate(LiveSession session, long revision, String text) {
+        long start = System.nanoTime();
+        TranslationResponse response;
+        try {
+            response = translationService.translate(new TranslationRequest(text));
+        } catch (CancellationException e) {
+            logger.debug("Live translation of revision {} cancelled", revision);
+            return;
+        } catch (RuntimeException e) {
+            if (isLatest(session, revision)) {
+                failed.incrementAndGet();
+                logger.warn("Live translation of revision {} failed", revision, e);
+                sendError(session, revision, "Translation failed");
+            }
+            return;
+        } finally {
+            synchronized (session) {
+                // Une révision plus récente a déjà remplacé (ou annulé) inFlight
+                if (revision == session.latestRevision) {
+                    session.inFlight = null;
+                }
+            }
+        }
+
+        if (!isLatest(session, revision) || Thread.currentThread().isInterrupted()) {
+            return;
+        }
+        translated.incrementAndGet();
+
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("type", "translation");
+        message.put("revision", revision);
+        message.put("originalText", response.getOriginalText());
+        message.put("translatedText", response.getTranslatedText());
+        message.put("fallback", response.isFallback());
+        message.put("latencyMs", (System.nanoTime() - start) / 1_000_000);
+        session.sender.accept(message);
+    }
+
+    private boolean isLatest(LiveSession session, long revision) {
+        synchronized (session) {
+            return revision == session.latestRevision;
+        }
+    }
+
+    private void sendError(LiveSession session, long revision, String error) {
+        session.sender.accept(Map.of(
+                "type", "error",
+                "revision", revision,
+                "error", error));
+    }
+
+    private void cancelPending(LiveSession session) {
+        if (session.debounce != null) {
+            session.debounce.cancel(false);
+            session.debounce = null;
+        }
+        if (session.inFlight != null) {
+            if (session.inFlight.cancel(true)) {
+                superseded.incrementAndGet();
+                logger.debug("Cancelled superseded live translation");
+            }
+            session.inFlight = null;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    private static final class LiveSession {
+        private final Consumer<Map<String, Object>> sender;
+        private long latestRevision = Long.MIN_VALUE;
+        private ScheduledFuture<?> debounce;
+        private Future<?> inFlight;
+
+        LiveSession(Consumer<Map<String, Object>> sender) {
+            this.sender = sender;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package org.mql.spring.boot.translator.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * In-process LRU store, used as the L1 tier of the translation cache.
+ */
+public class LocalTranslationCacheStore implements TranslationCacheStore {
+
+    private final Map<String, String> entries;
+
+    public LocalTranslationCacheStore(int maxEntries) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    @Override
+    public String name() {
+        return "local";
+    }
+
+    @Override
+    public synchronized String get(String key) {
+        return entries.get(key);
+    }
+
+    @Override
+    public synchronized void put(String key, String value) {
+        entries.put(key, value);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+}
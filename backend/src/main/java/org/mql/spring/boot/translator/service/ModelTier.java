@@ -0,0 +1,89 @@
+package org.mql.spring.boot.translator.service;
+
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One LM Studio model the router can send requests to, with its own endpoint,
+ * generation limit, timeout and the highest input complexity it is trusted with.
+ */
+public class ModelTier {
+
+    private final String name;
+    private final String model;
+    private final int maxTokens;
+    private final Duration timeout;
+    private final double maxComplexity;
+    private final WebClient webClient;
+
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong escalations = new AtomicLong();
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    public ModelTier(String name, String model, int maxTokens, Duration timeout,
+                     double maxComplexity, WebClient webClient) {
+        this.name = name;
+        this.model = model;
+        this.maxTokens = maxTokens;
+        this.timeout = timeout;
+        this.maxComplexity = maxComplexity;
+        this.webClient = webClient;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public int getMaxTokens() {
+        return maxTokens;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public double getMaxComplexity() {
+        return maxComplexity;
+    }
+
+    public WebClient getWebClient() {
+        return webClient;
+    }
+
+    public void recordCall(long latencyNanos, boolean success) {
+        calls.incrementAndGet();
+        if (!success) {
+            failures.incrementAndGet();
+        }
+        totalLatencyNanos.addAndGet(latencyNanos);
+        maxLatencyNanos.accumulateAndGet(latencyNanos, Math::max);
+    }
+
+    public void recordEscalation() {
+        escalations.incrementAndGet();
+    }
+
+    public Map<String, Object> getStats() {
+        long count = calls.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("name", name);
+        stats.put("model", model);
+        stats.put("calls", count);
+        stats.put("failures", failures.get());
+        stats.put("avgLatencyMs", count == 0 ? 0 : totalLatencyNanos.get() / count / 1_000_000);
+        stats.put("maxLatencyMs", maxLatencyNanos.get() / 1_000_000);
+        stats.put("escalations", escalations.get());
+        stats.put("escalationRate", count == 0 ? 0.0 : (double) escalations.get() / count);
+        return stats;
+    }
+}
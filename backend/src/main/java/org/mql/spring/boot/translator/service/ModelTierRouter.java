@@ -0,0 +1,127 @@
+package org.mql.spring.boot.translator.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.http.client.reactive.JdkClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Routes each text to the smallest model tier that can handle it.
+ *
+ * Tiers are listed smallest first in {@code lm.studio.tiers}; each one reads
+ * {@code lm.studio.tier.<name>.url|model|max-tokens|timeout-ms|max-complexity}.
+ * Without a tier list, a single tier is built from {@code lm.studio.url} and
+ * {@code lm.studio.model}. Every tier but the last must set max-complexity:
+ * without it, all traffic would stay on the smallest model.
+ */
+@Component
+public class ModelTierRouter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ModelTierRouter.class);
+
+    private static final Set<String> COMMON_WORDS = Set.of(
+            "i", "you", "he", "she", "it", "we", "they", "me", "my", "your", "his", "her", "our", "their",
+            "a", "an", "the", "this", "that", "is", "are", "was", "were", "be", "am", "do", "does", "did",
+            "have", "has", "had", "will", "can", "to", "of", "in", "on", "at", "for", "with", "and", "or",
+            "not", "no", "yes", "what", "how", "where", "when", "why", "who", "hello", "hi", "thanks",
+            "thank", "please", "good", "bad", "very", "want", "like", "love", "go", "come", "eat", "drink",
+            "name", "now", "today", "tomorrow", "here", "there", "much", "many", "more", "from", "see",
+            "know", "think", "make", "get", "give", "take", "time", "day", "home", "friend", "family");
+
+    private final List<ModelTier> tiers = new ArrayList<>();
+
+    public ModelTierRouter(Environment environment) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(environment.getProperty("lm.studio.connect-timeout-ms", Long.class, 2000L)))
+                .build();
+        JdkClientHttpConnector connector = new JdkClientHttpConnector(httpClient);
+
+        String defaultUrl = environment.getRequiredProperty("lm.studio.url");
+        String defaultModel = environment.getProperty("lm.studio.model", "llama-3.2-3b-instruct");
+        List<String> names = Arrays.stream(environment.getProperty("lm.studio.tiers", "").split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .toList();
+        if (names.isEmpty()) {
+            names = List.of("default");
+        }
+
+        for (int i = 0; i < names.size(); i++) {
+            String prefix = "lm.studio.tier." + names.get(i) + ".";
+            boolean last = i == names.size() - 1;
+            String url = environment.getProperty(prefix + "url", defaultUrl);
+
+            tiers.add(new ModelTier(
+                    names.get(i),
+                    environment.getProperty(prefix + "model", defaultModel),
+                    environment.getProperty(prefix + "max-tokens", Integer.class, 150),
+                    Duration.ofMillis(environment.getProperty(prefix + "timeout-ms", Long.class, 30000L)),
+                    last ? 1.0 : environment.getRequiredProperty(prefix + "max-complexity", Double.class),
+                    WebClient.builder().baseUrl(url).clientConnector(connector).build()));
+            logger.info("Model tier {}: {} at {}", names.get(i), tiers.get(i).getModel(), url);
+        }
+    }
+
+    public int route(String text) {
+        double complexity = complexity(text);
+        for (int i = 0; i < tiers.size(); i++) {
+            if (complexity <= tiers.get(i).getMaxComplexity()) {
+                logger.debug("Complexity {} routed to tier {}", complexity, tiers.get(i).getName());
+                return i;
+            }
+        }
+        return tiers.size() - 1;
+    }
+
+    public ModelTier tier(int index) {
+        return tiers.get(index);
+    }
+
+    public int size() {
+        return tiers.size();
+    }
+
+    public List<Map<String, Object>> getStats() {
+        return tiers.stream().map(ModelTier::getStats).toList();
+    }
+
+    /**
+     * Cheap 0..1 estimate of how hard a text is to translate: longer texts,
+     * rarer and longer words, and dense punctuation or digits score higher.
+     */
+    double complexity(String text) {
+        String[] words = text.trim().toLowerCase().split("\\s+");
+        int wordCount = words.length;
+
+        int rare = 0;
+        int longWords = 0;
+        for (String word : words) {
+            String letters = word.replaceAll("[^a-z']", "");
+            if (!letters.isEmpty() && !COMMON_WORDS.contains(letters)) {
+                rare++;
+            }
+            if (letters.length() >= 9) {
+                longWords++;
+            }
+        }
+
+        int marks = 0;
+        for (char c : text.toCharArray()) {
+            if (",;:()[]\"/%&-".indexOf(c) >= 0 || Character.isDigit(c)) {
+                marks++;
+            }
+        }
+
+        double length = Math.min(1.0, wordCount / 40.0);
+        double vocabulary = Math.min(1.0, 0.6 * rare / wordCount + 1.2 * longWords / wordCount);
+        double punctuation = Math.min(1.0, 2.0 * marks / wordCount);
+        return 0.45 * length + 0.35 * vocabulary + 0.2 * punctuation;
+    }
+}
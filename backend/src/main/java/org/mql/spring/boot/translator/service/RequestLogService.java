@@ -0,0 +1,133 @@
+package org.mql.spring.boot.translator.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One structured JSON line per translate request, written by a background
+ * thread. Request threads only offer the record to a bounded buffer and never
+ * wait: when the buffer is full the record is dropped and counted. User text
+ * is only included for a sampled fraction of requests, truncated or redacted.
+ */
+@Service
+public class RequestLogService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestLogService.class);
+    private static final Logger requestLogger = LoggerFactory.getLogger("org.mql.spring.boot.translator.requests");
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final BlockingQueue<Map<String, Object>> buffer;
+    private final Thread writer;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    @Value("${request-log.payload-sample-rate:0.01}")
+    private double payloadSampleRate;
+
+    @Value("${request-log.max-payload-chars:80}")
+    private int maxPayloadChars;
+
+    @Value("${request-log.redact-payloads:false}")
+    private boolean redactPayloads;
+
+    public RequestLogService(@Value("${request-log.buffer-size:4096}") int bufferSize) {
+        this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        this.writer = new Thread(this::drain, "request-log");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    public String nextId() {
+        return Long.toString(sequence.incrementAndGet(), 36);
+    }
+
+    public void record(String id, String endpoint, String outcome, long startNanos,
+                       String text, String translatedText) {
+        record(id, endpoint, outcome, startNanos, text, translatedText, null);
+    }
+
+    /**
+     * Records the summary of a finished request; never blocks. {@code timings}
+     * is null for requests answered before reaching the translation pool.
+     */
+    public void record(String id, String endpoint, String outcome, long startNanos,
+                       String text, String translatedText, RequestTimings timings) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("id", id);
+        summary.put("endpoint", endpoint);
+        summary.put("outcome", outcome);
+        summary.put("latencyMs", (System.nanoTime() - startNanos) / 1_000_000);
+        if (timings != null) {
+            summary.put("queueWaitMs", timings.getQueueWaitMs());
+            summary.put("cacheLookupMs", timings.getCacheLookupMs());
+            summary.put("upstreamMs", timings.getUpstreamMs());
+            summary.put("upstreamCalls", timings.getUpstreamCalls());
+        }
+        summary.put("inputChars", text == null ? 0 : text.length());
+        summary.put("outputChars", translatedText == null ? 0 : translatedText.length());
+
+        if (text != null && ThreadLocalRandom.current().nextDouble() < payloadSampleRate) {
+            summary.put("text", payload(text));
+            if (translatedText != null) {
+                summary.put("translatedText", payload(translatedText));
+            }
+        }
+
+        if (!buffer.offer(summary)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        return Map.of(
+                "written", written.get(),
+                "dropped", dropped.get(),
+                "buffered", buffer.size());
+    }
+
+    private String payload(String text) {
+        if (redactPayloads) {
+            return "[redacted " + text.length() + " chars]";
+        }
+        if (text.length() <= maxPayloadChars) {
+            return text;
+        }
+        return text.substring(0, maxPayloadChars) + "…";
+    }
+
+    private void drain() {
+        try {
+            while (true) {
+                Map<String, Object> summary = buffer.take();
+                try {
+                    requestLogger.info(objectMapper.writeValueAsString(summary));
+                    written.incrementAndGet();
+                } catch (JsonProcessingException e) {
+                    logger.warn("Cannot serialize request summary {}", summary.get("id"), e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writer.interrupt();
+    }
+}
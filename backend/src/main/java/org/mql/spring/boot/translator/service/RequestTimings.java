@@ -0,0 +1,49 @@
+package org.mql.spring.boot.translator.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Where the time of one translate request went: waiting for a worker, looking
+ * up the translation cache, and calling LM Studio (all attempts together).
+ * Filled by the translation worker and read once the request is logged.
+ */
+public final class RequestTimings {
+
+    private final AtomicLong queueWaitNanos = new AtomicLong();
+    private final AtomicLong cacheLookupNanos = new AtomicLong();
+    private final AtomicLong upstreamNanos = new AtomicLong();
+    private final AtomicLong upstreamCalls = new AtomicLong();
+
+    void recordQueueWait(long nanos) {
+        queueWaitNanos.addAndGet(nanos);
+    }
+
+    void recordCacheLookup(long nanos) {
+        cacheLookupNanos.addAndGet(nanos);
+    }
+
+    void recordUpstreamCall(long nanos) {
+        upstreamNanos.addAndGet(nanos);
+        upstreamCalls.incrementAndGet();
+    }
+
+    public double getQueueWaitMs() {
+        return millis(queueWaitNanos.get());
+    }
+
+    public double getCacheLookupMs() {
+        return millis(cacheLookupNanos.get());
+    }
+
+    public double getUpstreamMs() {
+        return millis(upstreamNanos.get());
+    }
+
+    public long getUpstreamCalls() {
+        return upstreamCalls.get();
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+}
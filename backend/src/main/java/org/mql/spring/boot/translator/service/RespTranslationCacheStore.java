@@ -0,0 +1,155 @@
+package org.mql.spring.boot.translator.service;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Shared L2 store speaking the Redis protocol (RESP), so any Redis-compatible
+ * server works (Redis, Valkey, KeyDB, or loadtest/RespStub.java locally).
+ * Only GET and SET with an expiry are used. Every socket operation is bounded
+ * by a short timeout; a failed connection is closed rather than reused.
+ *
+ * Not a bean: {@link TieredTranslationCache} creates it at runtime when
+ * {@code translation.cache.l2.host} is set, so the setting also works in the
+ * AOT-processed fast-startup build, where bean conditions are fixed at build time.
+ */
+public class RespTranslationCacheStore implements TranslationCacheStore {
+
+    private final String host;
+    private final int port;
+    private final int timeoutMs;
+    private final long ttlSeconds;
+    private final BlockingQueue<Connection> idle;
+
+    public RespTranslationCacheStore(String host, int port, int timeoutMs, long ttlSeconds, int maxIdleConnections) {
+        this.host = host;
+        this.port = port;
+        this.timeoutMs = timeoutMs;
+        this.ttlSeconds = ttlSeconds;
+        this.idle = new ArrayBlockingQueue<>(maxIdleConnections);
+    }
+
+    @Override
+    public String name() {
+        return "resp://" + host + ":" + port;
+    }
+
+    @Override
+    public String get(String key) throws IOException {
+        byte[] value = execute("GET", key);
+        return value == null ? null : new String(value, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void put(String key, String value) throws IOException {
+        execute("SET", key, value, "EX", Long.toString(ttlSeconds));
+    }
+
+    private byte[] execute(String... command) throws IOException {
+        Connection connection = idle.poll();
+        if (connection == null) {
+            connection = new Connection(host, port, timeoutMs);
+        }
+        try {
+            byte[] reply = connection.execute(command);
+            if (!idle.offer(connection)) {
+                connection.close();
+            }
+            return reply;
+        } catch (IOException | RuntimeException e) {
+            connection.close();
+            throw e;
+        }
+    }
+
+    public void shutdown() {
+        Connection connection;
+        while ((connection = idle.poll()) != null) {
+            connection.close();
+        }
+    }
+
+    private static final class Connection {
+        private final Socket socket;
+        private final InputStream in;
+        private final OutputStream out;
+
+        Connection(String host, int port, int timeoutMs) throws IOException {
+            socket = new Socket();
+            try {
+                socket.connect(new InetSocketAddress(host, port), timeoutMs);
+                socket.setSoTimeout(timeoutMs);
+                socket.setTcpNoDelay(true);
+                in = new BufferedInputStream(socket.getInputStream());
+                out = new BufferedOutputStream(socket.getOutputStream());
+            } catch (IOException e) {
+                socket.close();
+                throw e;
+            }
+        }
+
+        byte[] execute(String... command) throws IOException {
+            out.write(("*" + command.length + "\r\n").getBytes(StandardCharsets.US_ASCII));
+            for (String part : command) {
+                byte[] bytes = part.getBytes(StandardCharsets.UTF_8);
+                out.write(("$" + bytes.length + "\r\n").getBytes(StandardCharsets.US_ASCII));
+                out.write(bytes);
+                out.write('\r');
+                out.write('\n');
+            }
+            out.flush();
+            return readReply();
+        }
+
+        private byte[] readReply() throws IOException {
+            int type = in.read();
+            String line = readLine();
+            switch (type) {
+                case '+', ':' -> {
+                    return line.getBytes(StandardCharsets.UTF_8);
+                }
+                case '-' -> throw new IOException("RESP error: " + line);
+                case '$' -> {
+                    int length = Integer.parseInt(line);
+                    if (length < 0) {
+                        return null;
+                    }
+                    byte[] value = in.readNBytes(length);
+                    if (value.length < length || in.read() != '\r' || in.read() != '\n') {
+                        throw new EOFException("Truncated RESP reply");
+                    }
+                    return value;
+                }
+                case -1 -> throw new EOFException("Connection closed by RESP server");
+                default -> throw new IOException("Unexpected RESP reply type: " + (char) type);
+            }
+        }
+
+        private String readLine() throws IOException {
+            StringBuilder line = new StringBuilder();
+            int c;
+            while ((c = in.read()) != '\r') {
+                if (c == -1) {
+                    throw new EOFException("Connection closed by RESP server");
+                }
+                line.append((char) c);
+            }
+            if (in.read() != '\n') {
+                throw new IOException("Malformed RESP line");
+            }
+            return line.toString();
+        }
+
+        void close() {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // déjà fermée
+            }
+        }
+    }
+}
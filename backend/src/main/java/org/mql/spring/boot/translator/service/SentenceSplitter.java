@@ -0,0 +1,49 @@
+package org.mql.spring.boot.translator.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Splits text into sentences for segment-wise translation. Each segment keeps
+ * the whitespace that followed it, so joining the segments gives back the
+ * original text and paragraph breaks survive translation.
+ */
+public final class SentenceSplitter {
+
+    private static final Pattern BOUNDARY = Pattern.compile("(?<=[.!?؟])\\s+|\\s*\\n\\s*");
+
+    private SentenceSplitter() {}
+
+    public static List<String> split(String text) {
+        List<String> segments = new ArrayList<>();
+        Matcher matcher = BOUNDARY.matcher(text);
+        int start = 0;
+        while (matcher.find()) {
+            if (matcher.start() > start) {
+                segments.add(text.substring(start, matcher.end()));
+            } else if (!segments.isEmpty()) {
+                int last = segments.size() - 1;
+                segments.set(last, segments.get(last) + text.substring(matcher.start(), matcher.end()));
+            }
+            start = matcher.end();
+        }
+        if (start < text.length()) {
+            segments.add(text.substring(start));
+        }
+        return segments;
+    }
+
+    /**
+     * Separator to put after the translation of a segment: a line break if the
+     * segment ended a line, a space otherwise.
+     */
+    public static String separatorOf(String segment) {
+        String trailing = segment.substring(segment.stripTrailing().length());
+        if (trailing.isEmpty()) {
+            return "";
+        }
+        return trailing.contains("\n") ? trailing.replaceAll("[^\\n]", "") : " ";
+    }
+}
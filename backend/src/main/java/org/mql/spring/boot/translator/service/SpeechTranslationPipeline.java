@@ -0,0 +1,184 @@
+package org.mql.spring.boot.translator.service;
+
+import jakarta.annotation.PreDestroy;
+import org.mql.spring.boot.translator.model.AudioPreprocessingStats;
+import org.mql.spring.boot.translator.model.TranslationRequest;
+import org.mql.spring.boot.translator.model.TranslationResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Speech -> text -> Darija -> speech in one call. The transcript is split into
+ * sentences and each sentence runs its own translate-then-synthesize task on a
+ * bounded pool, so the first sentence is being spoken while later ones are still
+ * translating. Segments are emitted in sentence order as soon as each is ready.
+ */
+@Service
+public class SpeechTranslationPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpeechTranslationPipeline.class);
+
+    public interface EventSink {
+        void emit(Map<String, Object> event) throws IOException;
+    }
+
+    private final AudioService audioService;
+    private final TranslationService translationService;
+    private final ExecutorService executor;
+
+    public SpeechTranslationPipeline(AudioService audioService,
+                                     TranslationService translationService,
+                                     @Value("${pipeline.workers:4}") int workers,
+                                     @Value("${pipeline.queue-capacity:100}") int queueCapacity) {
+        this.audioService = audioService;
+        this.translationService = translationService;
+
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread thread = new Thread(r, "speech-pipeline-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Transcribes the audio and queues one task per sentence. Called before the
+     * response is committed, so a full pool can still be answered with a 503.
+     *
+     * @throws RejectedExecutionException when the pool cannot take every sentence
+     */
+    public Run start(byte[] audioData) {
+        long start = System.nanoTime();
+
+        AudioPreprocessingStats preprocessing = new AudioPreprocessingStats();
+        String transcript = audioService.speechToText(audioData, preprocessing);
+        List<String> sentences = splitSentences(transcript);
+
+        Run run = new Run(start, transcript, preprocessing, elapsedMs(start));
+        try {
+            for (int i = 0; i < sentences.size(); i++) {
+                int index = i;
+                String sentence = sentences.get(i);
+                run.segments.add(executor.submit(() -> translateSegment(index, sentence)));
+            }
+        } catch (RejectedExecutionException e) {
+            run.cancel();
+            throw e;
+        }
+        return run;
+    }
+
+    public void stream(Run run, EventSink sink) throws IOException {
+        Map<String, Object> transcriptEvent = new LinkedHashMap<>();
+        transcriptEvent.put("type", "transcript");
+        transcriptEvent.put("text", run.transcript);
+        transcriptEvent.put("preprocessing", run.preprocessing);
+        transcriptEvent.put("sttMs", run.sttMs);
+
+        long translateMs = 0;
+        long ttsMs = 0;
+        try {
+            sink.emit(transcriptEvent);
+            for (Future<Map<String, Object>> segment : run.segments) {
+                Map<String, Object> event = segment.get();
+                translateMs += (long) event.get("translateMs");
+                ttsMs += (long) event.get("ttsMs");
+                sink.emit(event);
+            }
+        } catch (InterruptedException e) {
+            run.cancel();
+            Thread.currentThread().interrupt();
+            return;
+        } catch (ExecutionException e) {
+            // Étape en échec : inutile de continuer les autres phrases
+            run.cancel();
+            throw e.getCause() instanceof RuntimeException cause ? cause : new RuntimeException(e.getCause());
+        } catch (IOException | RuntimeException e) {
+            // Client parti : les traductions en cours sont interrompues, LM Studio libéré
+            run.cancel();
+            throw e;
+        }
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("type", "summary");
+        summary.put("segments", run.segments.size());
+        summary.put("sttMs", run.sttMs);
+        summary.put("translateMs", translateMs);
+        summary.put("ttsMs", ttsMs);
+        summary.put("totalMs", elapsedMs(run.startNanos));
+        sink.emit(summary);
+
+        logger.info("Speech translation pipeline: {} segments, stt={}ms translate={}ms tts={}ms total={}ms",
+                run.segments.size(), run.sttMs, translateMs, ttsMs, summary.get("totalMs"));
+    }
+
+    /**
+     * Translate then synthesize one sentence, in a single task so that
+     * cancelling its future interrupts whichever step is running.
+     */
+    private Map<String, Object> translateSegment(int index, String sentence) {
+        long start = System.nanoTime();
+        TranslationResponse translation = translationService.translate(new TranslationRequest(sentence));
+
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("type", "segment");
+        event.put("index", index);
+        event.put("originalText", sentence);
+        event.put("translatedText", translation.getTranslatedText());
+        event.put("targetLang", translation.getTargetLang());
+        event.put("translateMs", elapsedMs(start));
+
+        start = System.nanoTime();
+        String key = audioService.textToSpeech(translation.getTranslatedText(), translation.getTargetLang());
+        event.put("audioKey", key);
+        event.put("ttsMs", elapsedMs(start));
+        return event;
+    }
+
+    private List<String> splitSentences(String text) {
+        List<String> sentences = new ArrayList<>();
+        for (String sentence : SentenceSplitter.split(text)) {
+            if (!sentence.isBlank()) {
+                sentences.add(sentence.trim());
+            }
+        }
+        return sentences;
+    }
+
+    private long elapsedMs(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public static final class Run {
+        private final long startNanos;
+        private final String transcript;
+        private final AudioPreprocessingStats preprocessing;
+        private final long sttMs;
+        private final List<Future<Map<String, Object>>> segments = new ArrayList<>();
+
+        Run(long startNanos, String transcript, AudioPreprocessingStats preprocessing, long sttMs) {
+            this.startNanos = startNanos;
+            this.transcript = transcript;
+            this.preprocessing = preprocessing;
+            this.sttMs = sttMs;
+        }
+
+        void cancel() {
+            segments.forEach(segment -> segment.cancel(true));
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package org.mql.spring.boot.translator.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Translation cache with a per-node L1 and an optional shared L2, so popular
+ * phrases translated on one backend node are reused by the others.
+ *
+ * Reads check L1, then L2; an L2 hit is copied into L1. An L2 failure or
+ * timeout counts as a miss and the caller falls through to LM Studio; after
+ * a run of consecutive L2 errors, L2 is skipped for a short backoff so a down
+ * server does not cost every request a connect attempt. Writes go to L1 right
+ * away and to L2 in the background; when the write-behind queue is full the
+ * L2 write is dropped.
+ *
+ * Keys come from {@link TranslationService#cacheTag}, which hashes the prompt
+ * version and the model with the text: changing either moves every node to a
+ * fresh key space, so near-cache entries from the old prompt or model are
+ * never read again and age out of the LRU and the L2 expiry.
+ */
+@Service
+public class TieredTranslationCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(TieredTranslationCache.class);
+
+    private static final String KEY_PREFIX = "darija:translation:";
+
+    private final boolean enabled;
+    private final LocalTranslationCacheStore local;
+    private final TranslationCacheStore remote;
+    private final boolean ownsRemote;
+    private final ThreadPoolExecutor writeBehind;
+
+    @Value("${translation.cache.l2.backoff-after-errors:3}")
+    private int backoffAfterErrors;
+
+    @Value("${translation.cache.l2.backoff-ms:5000}")
+    private long backoffMs;
+
+    private final AtomicInteger consecutiveL2Errors = new AtomicInteger();
+    private volatile long l2SkipUntilNanos;
+
+    private final AtomicLong l1Hits = new AtomicLong();
+    private final AtomicLong l1Misses = new AtomicLong();
+    private final AtomicLong l2Hits = new AtomicLong();
+    private final AtomicLong l2Misses = new AtomicLong();
+    private final AtomicLong l2Errors = new AtomicLong();
+    private final AtomicLong l2Writes = new AtomicLong();
+    private final AtomicLong l2WriteErrors = new AtomicLong();
+    private final AtomicLong l2WritesDropped = new AtomicLong();
+    private final AtomicLong l2Skipped = new AtomicLong();
+
+    public TieredTranslationCache(ObjectProvider<TranslationCacheStore> remoteStore,
+                                  Environment environment,
+                                  @Value("${translation.cache.enabled:true}") boolean enabled,
+                                  @Value("${translation.cache.l1.max-entries:10000}") int l1MaxEntries,
+                                  @Value("${translation.cache.write-behind-capacity:1000}") int writeBehindCapacity) {
+        this.enabled = enabled;
+        this.local = new LocalTranslationCacheStore(l1MaxEntries);
+
+        // Résolu au démarrage et non par condition de bean, figée par l'AOT du build fast-startup
+        TranslationCacheStore store = enabled ? remoteStore.getIfAvailable() : null;
+        String l2Host = environment.getProperty("translation.cache.l2.host", "").trim();
+        this.ownsRemote = enabled && store == null && !l2Host.isEmpty();
+        if (ownsRemote) {
+            store = new RespTranslationCacheStore(l2Host,
+                    environment.getProperty("translation.cache.l2.port", Integer.class, 6379),
+                    environment.getProperty("translation.cache.l2.timeout-ms", Integer.class, 50),
+                    environment.getProperty("translation.cache.l2.ttl-seconds", Long.class, 604800L),
+                    environment.getProperty("translation.cache.l2.max-idle-connections", Integer.class, 8));
+        }
+        this.remote = store;
+        this.writeBehind = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(writeBehindCapacity),
+                r -> {
+                    Thread thread = new Thread(r, "translation-cache-writer");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        if (remote != null) {
+            logger.info("Translation cache L2: {}", remote.name());
+        }
+    }
+
+    /**
+     * @return the cached translation, or null when LM Studio must be called
+     */
+    public String get(String tag) {
+        if (!enabled) {
+            return null;
+        }
+        String key = KEY_PREFIX + tag;
+
+        String value = local.get(key);
+        if (value != null) {
+            l1Hits.incrementAndGet();
+            return value;
+        }
+        l1Misses.incrementAndGet();
+
+        if (remote == null) {
+            return null;
+        }
+        if (inBackoff()) {
+            l2Skipped.incrementAndGet();
+            return null;
+        }
+        try {
+            value = remote.get(key);
+            l2Succeeded();
+        } catch (IOException | RuntimeException e) {
+            // Une réponse RESP malformée (NumberFormatException...) est un miss, pas une 500
+            l2Errors.incrementAndGet();
+            l2Failed();
+            logger.debug("L2 cache read failed: {}", e.getMessage());
+            return null;
+        }
+        if (value == null) {
+            l2Misses.incrementAndGet();
+            return null;
+        }
+        l2Hits.incrementAndGet();
+        local.put(key, value);
+        return value;
+    }
+
+    public void put(String tag, String translation) {
+        if (!enabled) {
+            return;
+        }
+        String key = KEY_PREFIX + tag;
+        local.put(key, translation);
+
+        if (remote == null) {
+            return;
+        }
+        if (inBackoff()) {
+            l2Skipped.incrementAndGet();
+            return;
+        }
+        try {
+            writeBehind.execute(() -> {
+                // Le backoff a pu commencer pendant que l'écriture attendait dans la file
+                if (inBackoff()) {
+                    l2Skipped.incrementAndGet();
+                    return;
+                }
+                try {
+                    remote.put(key, translation);
+                    l2Writes.incrementAndGet();
+                    l2Succeeded();
+                } catch (IOException | RuntimeException e) {
+                    l2WriteErrors.incrementAndGet();
+                    l2Failed();
+                    logger.debug("L2 cache write failed: {}", e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            l2WritesDropped.incrementAndGet();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> l1 = new LinkedHashMap<>();
+        l1.put("entries", local.size());
+        l1.put("hits", l1Hits.get());
+        l1.put("misses", l1Misses.get());
+        l1.put("hitRate", hitRate(l1Hits.get(), l1Misses.get()));
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("l1", l1);
+
+        if (remote != null) {
+            Map<String, Object> l2 = new LinkedHashMap<>();
+            l2.put("store", remote.name());
+            l2.put("hits", l2Hits.get());
+            l2.put("misses", l2Misses.get());
+            l2.put("errors", l2Errors.get());
+            // Les erreurs comptent comme des miss : la requête est retombée sur LM Studio
+            l2.put("hitRate", hitRate(l2Hits.get(), l2Misses.get() + l2Errors.get()));
+            l2.put("writes", l2Writes.get());
+            l2.put("writeErrors", l2WriteErrors.get());
+            l2.put("writesDropped", l2WritesDropped.get());
+            l2.put("writesPending", writeBehind.getQueue().size());
+            l2.put("skippedInBackoff", l2Skipped.get());
+            stats.put("l2", l2);
+        }
+        return stats;
+    }
+
+    private boolean inBackoff() {
+        return l2SkipUntilNanos - System.nanoTime() > 0;
+    }
+
+    private void l2Succeeded() {
+        consecutiveL2Errors.set(0);
+    }
+
+    private void l2Failed() {
+        if (consecutiveL2Errors.incrementAndGet() >= backoffAfterErrors) {
+            consecutiveL2Errors.set(0);
+            l2SkipUntilNanos = System.nanoTime() + backoffMs * 1_000_000;
+            logger.warn("L2 cache unavailable, skipping it for {} ms", backoffMs);
+        }
+    }
+
+    private double hitRate(long hits, long misses) {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writeBehind.shutdown();
+        if (ownsRemote) {
+            ((RespTranslationCacheStore) remote).shutdown();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package org.mql.spring.boot.translator.service;
+
+import java.io.IOException;
+
+/**
+ * Key/value store behind the translation cache. Keys already encode the
+ * prompt version and the model, so a stored translation never changes and
+ * stores only need plain get and put.
+ *
+ * A Spring bean implementing this interface is used as the shared L2 tier;
+ * without one, {@link RespTranslationCacheStore} is used when
+ * {@code translation.cache.l2.host} is set.
+ */
+public interface TranslationCacheStore {
+
+    String name();
+
+    /**
+     * @return the cached translation, or null on a miss
+     */
+    String get(String key) throws IOException;
+
+    void put(String key, String value) throws IOException;
+}
@@ -0,0 +1,209 @@
+package org.mql.spring.boot.translator.service;
+
+import org.mql.spring.boot.translator.model.TranslationResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Recent translations per user, kept in fixed-capacity ring buffers. Each entry
+ * is a single byte array (timestamp, cache tag, UTF-8 original, UTF-8
+ * translation) rather than an object graph. Memory is capped per user and in
+ * total; when the total cap is hit, the oldest entries of the least recently
+ * active users go first. The history also serves as a per-user cache of exact
+ * repeats, matched on the {@link TranslationService#cacheTag} too, so a prompt
+ * or model change stops serving entries translated before it.
+ */
+@Service
+public class TranslationHistoryService {
+
+    // SHA-256 de TranslationService.cacheTag
+    private static final int TAG_BYTES = 32;
+    private static final int HEADER_BYTES = Long.BYTES + TAG_BYTES + Integer.BYTES;
+
+    private final int maxEntriesPerUser;
+    private final long maxBytesPerUser;
+    private final long maxTotalBytes;
+
+    private final LinkedHashMap<String, Ring> rings = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+    private long cacheHits;
+
+    public TranslationHistoryService(@Value("${history.max-entries-per-user:100}") int maxEntriesPerUser,
+                                     @Value("${history.max-bytes-per-user:65536}") long maxBytesPerUser,
+                                     @Value("${history.max-total-bytes:16777216}") long maxTotalBytes) {
+        this.maxEntriesPerUser = maxEntriesPerUser;
+        this.maxBytesPerUser = maxBytesPerUser;
+        this.maxTotalBytes = maxTotalBytes;
+    }
+
+    public synchronized void record(String username, String originalText, String cacheTag, String translatedText) {
+        byte[] original = originalText.getBytes(StandardCharsets.UTF_8);
+        byte[] translated = translatedText.getBytes(StandardCharsets.UTF_8);
+        int size = HEADER_BYTES + original.length + translated.length;
+        if (size > maxBytesPerUser) {
+            return;
+        }
+
+        ByteBuffer entry = ByteBuffer.allocate(size);
+        entry.putLong(System.currentTimeMillis());
+        entry.put(HexFormat.of().parseHex(cacheTag));
+        entry.putInt(original.length);
+        entry.put(original);
+        entry.put(translated);
+
+        Ring ring = rings.computeIfAbsent(username, u -> new Ring(maxEntriesPerUser));
+        while (ring.count > 0 && (ring.count == ring.entries.length || ring.bytes + size > maxBytesPerUser)) {
+            totalBytes -= ring.removeOldest();
+        }
+        ring.add(entry.array(), Arrays.hashCode(original));
+        totalBytes += size;
+
+        evictGlobally(ring);
+    }
+
+    /**
+     * Returns the stored translation of exactly this text under the same cache
+     * tag, or null.
+     */
+    public synchronized String lookup(String username, String originalText, String cacheTag) {
+        Ring ring = rings.get(username);
+        if (ring == null) {
+            return null;
+        }
+
+        byte[] original = originalText.getBytes(StandardCharsets.UTF_8);
+        int index = ring.find(original, HexFormat.of().parseHex(cacheTag), Arrays.hashCode(original));
+        if (index < 0) {
+            return null;
+        }
+        cacheHits++;
+        return decode(ring.entries[index]).getTranslatedText();
+    }
+
+    /**
+     * Newest-first page of a user's history. The cursor is the sequence number
+     * returned as {@code nextCursor} by the previous page, or null for the first page.
+     */
+    public synchronized Map<String, Object> page(String username, Long cursor, int limit) {
+        List<TranslationResponse> items = new ArrayList<>();
+        Long nextCursor = null;
+
+        Ring ring = rings.get(username);
+        if (ring != null) {
+            long newest = ring.nextSequence - 1;
+            long oldest = ring.nextSequence - ring.count;
+            long from = cursor == null ? newest : Math.min(cursor - 1, newest);
+            long sequence = from;
+            for (; sequence >= oldest && items.size() < limit; sequence--) {
+                items.add(decode(ring.entries[ring.slotOf(sequence)]));
+            }
+            if (sequence >= oldest) {
+                nextCursor = sequence + 1;
+            }
+        }
+
+        Map<String, Object> page = new LinkedHashMap<>();
+        page.put("items", items);
+        page.put("nextCursor", nextCursor);
+        page.put("usage", usage(username));
+        return page;
+    }
+
+    public synchronized Map<String, Object> usage(String username) {
+        Ring ring = rings.get(username);
+        return Map.of(
+                "entries", ring == null ? 0 : ring.count,
+                "bytes", ring == null ? 0 : ring.bytes,
+                "maxEntries", maxEntriesPerUser,
+                "maxBytes", maxBytesPerUser);
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        return Map.of(
+                "users", rings.size(),
+                "bytes", totalBytes,
+                "maxBytes", maxTotalBytes,
+                "cacheHits", cacheHits);
+    }
+
+    private void evictGlobally(Ring current) {
+        Iterator<Ring> iterator = rings.values().iterator();
+        while (totalBytes > maxTotalBytes && iterator.hasNext()) {
+            Ring ring = iterator.next();
+            while (totalBytes > maxTotalBytes && ring.count > 0 && (ring != current || ring.count > 1)) {
+                totalBytes -= ring.removeOldest();
+            }
+            if (ring.count == 0) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private TranslationResponse decode(byte[] entry) {
+        ByteBuffer buffer = ByteBuffer.wrap(entry);
+        long timestamp = buffer.getLong();
+        int originalLength = buffer.getInt(Long.BYTES + TAG_BYTES);
+        String original = new String(entry, HEADER_BYTES, originalLength, StandardCharsets.UTF_8);
+        String translated = new String(entry, HEADER_BYTES + originalLength,
+                entry.length - HEADER_BYTES - originalLength, StandardCharsets.UTF_8);
+
+        TranslationResponse response = new TranslationResponse(original, translated);
+        response.setTimestamp(timestamp);
+        return response;
+    }
+
+    private static final class Ring {
+        private final byte[][] entries;
+        private final int[] hashes;
+        private int count;
+        private long bytes;
+        private long nextSequence;
+
+        Ring(int capacity) {
+            this.entries = new byte[capacity][];
+            this.hashes = new int[capacity];
+        }
+
+        int slotOf(long sequence) {
+            return (int) (sequence % entries.length);
+        }
+
+        void add(byte[] entry, int hash) {
+            int slot = slotOf(nextSequence++);
+            entries[slot] = entry;
+            hashes[slot] = hash;
+            count++;
+            bytes += entry.length;
+        }
+
+        long removeOldest() {
+            int slot = slotOf(nextSequence - count);
+            long size = entries[slot].length;
+            entries[slot] = null;
+            count--;
+            bytes -= size;
+            return size;
+        }
+
+        int find(byte[] original, byte[] tag, int hash) {
+            for (long sequence = nextSequence - 1; sequence >= nextSequence - count; sequence--) {
+                int slot = slotOf(sequence);
+                if (hashes[slot] == hash && matches(entries[slot], original, tag)) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+
+        private static boolean matches(byte[] entry, byte[] original, byte[] tag) {
+            int length = ByteBuffer.wrap(entry).getInt(Long.BYTES + TAG_BYTES);
+            return length == original.length
+                    && Arrays.equals(entry, HEADER_BYTES, HEADER_BYTES + length, original, 0, length)
+                    && Arrays.equals(entry, Long.BYTES, Long.BYTES + TAG_BYTES, tag, 0, TAG_BYTES);
+        }
+    }
+}
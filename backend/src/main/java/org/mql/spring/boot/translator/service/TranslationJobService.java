@@ -0,0 +1,292 @@
+package org.mql.spring.boot.translator.service;
+
+import jakarta.annotation.PreDestroy;
+import org.mql.spring.boot.translator.model.TranslationJob;
+import org.mql.spring.boot.translator.model.TranslationRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Asynchronous translation of large texts. A job is split into sentences and
+ * translated segment by segment on a bounded worker pool, so partial results
+ * are available while it runs and survive a dropped client connection.
+ * Finished jobs are kept for {@code jobs.ttl-seconds}; the total text held by
+ * all jobs is capped by {@code jobs.max-retained-chars}.
+ */
+@Service
+public class TranslationJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TranslationJobService.class);
+
+    private final TranslationService translationService;
+    private final ThreadPoolExecutor executor;
+    private final ScheduledExecutorService cleaner;
+
+    private final Map<String, JobState> jobs = new ConcurrentHashMap<>();
+    private final AtomicLong retainedChars = new AtomicLong();
+
+    private final long ttlMillis;
+    private final long maxRetainedChars;
+    private final int maxTextChars;
+
+    public TranslationJobService(TranslationService translationService,
+                                 @Value("${jobs.workers:2}") int workers,
+                                 @Value("${jobs.queue-capacity:100}") int queueCapacity,
+                                 @Value("${jobs.ttl-seconds:900}") long ttlSeconds,
+                                 @Value("${jobs.max-retained-chars:20000000}") long maxRetainedChars,
+                                 @Value("${jobs.max-text-chars:200000}") int maxTextChars) {
+        this.translationService = translationService;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.maxRetainedChars = maxRetainedChars;
+        this.maxTextChars = maxTextChars;
+
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread thread = new Thread(r, "translation-job-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        this.cleaner = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "translation-job-cleaner");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.cleaner.scheduleWithFixedDelay(this::removeExpired, 30, 30, TimeUnit.SECONDS);
+    }
+
+    public TranslationJob submit(String text) {
+        if (text.length() > maxTextChars) {
+            throw new IllegalArgumentException("Text exceeds " + maxTextChars + " characters");
+        }
+        if (!reserve(text.length())) {
+            throw new RejectedExecutionException("Job storage is full, retry later");
+        }
+
+        List<String> segments = SentenceSplitter.split(text);
+        JobState state = new JobState(new TranslationJob(UUID.randomUUID().toString(), segments.size()), segments);
+        state.retained = text.length();
+        jobs.put(state.job.getId(), state);
+
+        try {
+            state.future = executor.submit(() -> run(state));
+        } catch (RejectedExecutionException e) {
+            remove(state.job.getId());
+            throw new RejectedExecutionException("Too many translation jobs queued, retry later");
+        }
+
+        logger.info("Translation job {} queued: {} chars, {} segments", state.job.getId(), text.length(), segments.size());
+        return snapshot(state);
+    }
+
+    public TranslationJob get(String id) {
+        JobState state = jobs.get(id);
+        return state == null ? null : snapshot(state);
+    }
+
+    public TranslationJob cancel(String id) {
+        JobState state = jobs.get(id);
+        if (state == null) {
+            return null;
+        }
+
+        synchronized (state) {
+            if (!state.job.isFinished()) {
+                state.cancelled = true;
+                if (state.future != null) {
+                    state.future.cancel(true);
+                }
+                finish(state, TranslationJob.CANCELLED, null);
+                logger.info("Translation job {} cancelled", id);
+            }
+        }
+        return snapshot(state);
+    }
+
+    /**
+     * Blocks until the job changes past {@code knownVersion} or the timeout
+     * elapses. Returns the current version, or -1 if the job no longer exists.
+     */
+    public long awaitChange(String id, long knownVersion, long timeoutMillis) throws InterruptedException {
+        JobState state = jobs.get(id);
+        if (state == null) {
+            return -1;
+        }
+
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        synchronized (state) {
+            long remaining = timeoutMillis;
+            while (state.version <= knownVersion && remaining > 0) {
+                state.wait(remaining);
+                remaining = deadline - System.currentTimeMillis();
+            }
+            return state.version;
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        return Map.of(
+                "jobs", jobs.size(),
+                "activeWorkers", executor.getActiveCount(),
+                "queued", executor.getQueue().size(),
+                "retainedChars", retainedChars.get(),
+                "maxRetainedChars", maxRetainedChars);
+    }
+
+    private void run(JobState state) {
+        synchronized (state) {
+            if (state.cancelled) {
+                return;
+            }
+            state.job.setStatus(TranslationJob.RUNNING);
+            state.job.setStartedAt(System.currentTimeMillis());
+            changed(state);
+        }
+
+        try {
+            for (String segment : state.segments) {
+                if (state.cancelled || Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+
+                String source = segment.strip();
+                String translated = source.isEmpty()
+                        ? ""
+                        : translationService.translate(new TranslationRequest(source)).getTranslatedText();
+                String appended = translated + SentenceSplitter.separatorOf(segment);
+
+                synchronized (state) {
+                    if (state.cancelled) {
+                        return;
+                    }
+                    state.translated.append(appended);
+                    state.retained += appended.length();
+                    state.job.setCompletedSegments(state.job.getCompletedSegments() + 1);
+                    changed(state);
+                }
+                retainedChars.addAndGet(appended.length());
+            }
+
+            synchronized (state) {
+                finish(state, TranslationJob.COMPLETED, null);
+            }
+            logger.info("Translation job {} completed in {} ms", state.job.getId(),
+                    state.job.getCompletedAt() - state.job.getStartedAt());
+
+        } catch (CancellationException e) {
+            logger.debug("Translation job {} interrupted", state.job.getId());
+        } catch (Exception e) {
+            logger.error("Translation job {} failed", state.job.getId(), e);
+            synchronized (state) {
+                finish(state, TranslationJob.FAILED, e.getMessage());
+            }
+        }
+    }
+
+    private void finish(JobState state, String status, String error) {
+        if (state.job.isFinished()) {
+            return;
+        }
+        state.job.setStatus(status);
+        state.job.setError(error);
+        state.job.setCompletedAt(System.currentTimeMillis());
+        state.expiresAt = state.job.getCompletedAt() + ttlMillis;
+        changed(state);
+    }
+
+    private void changed(JobState state) {
+        state.version++;
+        state.notifyAll();
+    }
+
+    private TranslationJob snapshot(JobState state) {
+        synchronized (state) {
+            TranslationJob job = state.job;
+            TranslationJob copy = new TranslationJob(job.getId(), job.getTotalSegments());
+            copy.setStatus(job.getStatus());
+            copy.setCompletedSegments(job.getCompletedSegments());
+            copy.setTranslatedText(state.translated.toString());
+            copy.setError(job.getError());
+            copy.setCreatedAt(job.getCreatedAt());
+            copy.setStartedAt(job.getStartedAt());
+            copy.setCompletedAt(job.getCompletedAt());
+            return copy;
+        }
+    }
+
+    /**
+     * Reserves room for a new job, evicting the oldest finished jobs first
+     * when the cap would be exceeded.
+     */
+    private synchronized boolean reserve(long chars) {
+        if (retainedChars.get() + chars > maxRetainedChars) {
+            List<JobState> finished = jobs.values().stream()
+                    .filter(state -> state.expiresAt > 0)
+                    .sorted(Comparator.comparingLong(state -> state.expiresAt))
+                    .toList();
+            for (JobState state : finished) {
+                if (retainedChars.get() + chars <= maxRetainedChars) {
+                    break;
+                }
+                remove(state.job.getId());
+            }
+        }
+        if (retainedChars.get() + chars > maxRetainedChars) {
+            return false;
+        }
+        retainedChars.addAndGet(chars);
+        return true;
+    }
+
+    private void remove(String id) {
+        JobState state = jobs.remove(id);
+        if (state != null) {
+            synchronized (state) {
+                retainedChars.addAndGet(-state.retained);
+                state.retained = 0;
+                changed(state);
+            }
+        }
+    }
+
+    private void removeExpired() {
+        long now = System.currentTimeMillis();
+        jobs.values().stream()
+                .filter(state -> state.expiresAt > 0 && state.expiresAt < now)
+                .map(state -> state.job.getId())
+                .toList()
+                .forEach(this::remove);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        cleaner.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    private static final class JobState {
+        private final TranslationJob job;
+        private final List<String> segments;
+        private final StringBuilder translated = new StringBuilder();
+
+        private volatile Future<?> future;
+        private volatile boolean cancelled;
+        private volatile long expiresAt;
+        private long retained;
+        private long version;
+
+        JobState(TranslationJob job, List<String> segments) {
+            this.job = job;
+            this.segments = segments;
+        }
+    }
+}
@@ -4,21 +4,42 @@ import org.mql.spring.boot.translator.model.TranslationRequest;
 import org.mql.spring.boot.translator.model.TranslationResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.SignalType;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
 
 @Service
 public class TranslationService {
 
     private static final Logger logger = LoggerFactory.getLogger(TranslationService.class);
 
-    private final WebClient webClient;
+    // À incrémenter à chaque changement des prompts : invalide les ETags déjà distribués
+    public static final String PROMPT_VERSION = "1";
+
+    // Temps gardé pour le fallback local une fois les appels LM Studio abandonnés
+    private static final Duration FALLBACK_RESERVE = Duration.ofMillis(50);
+    private static final double FIRST_ATTEMPT_SHARE = 0.6;
+    private static final double RETRY_SHARE = 0.5;
+
+    private final ModelTierRouter router;
+    private final TieredTranslationCache translationCache;
+    private final ExecutorService executor;
+    private final AtomicLong cancelledUpstreamCalls = new AtomicLong();
     private static final String SYSTEM_PROMPT = """
             You are a Moroccan Darija translator.
             Write ONLY in Arabic script.
@@ -44,61 +65,162 @@ public class TranslationService {
             - Human intelligence: الذكاء البشري
             """;
 
-    @Value("${lm.studio.model:llama-3.2-3b-instruct}")
-    private String modelName;
-
-    public TranslationService(@Value("${lm.studio.url}") String lmStudioUrl) {
-        this.webClient = WebClient.builder()
-                .baseUrl(lmStudioUrl)
-                .build();
+    @Value("${translation.default-deadline-ms:30000}")
+    private long defaultDeadlineMs;
+
+    public TranslationService(ModelTierRouter router,
+                              TieredTranslationCache translationCache,
+                              @Value("${translation.workers:8}") int workers,
+                              @Value("${translation.queue-capacity:200}") int queueCapacity) {
+        this.router = router;
+        this.translationCache = translationCache;
+
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread thread = new Thread(r, "translation-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
     }
 
     public TranslationResponse translate(TranslationRequest request) {
+        return translate(request, Deadline.afterMillis(defaultDeadlineMs));
+    }
+
+    /**
+     * Runs the translation on the translation pool and hands the result to the
+     * callback. Cancelling the returned future interrupts the worker, which
+     * aborts the pending LM Studio request.
+     */
+    public Future<?> translateAsync(TranslationRequest request, Deadline deadline,
+                                    BiConsumer<TranslationResponse, Throwable> callback) {
+        return translateAsync(request, deadline, new RequestTimings(), callback);
+    }
+
+    public Future<?> translateAsync(TranslationRequest request, Deadline deadline, RequestTimings timings,
+                                    BiConsumer<TranslationResponse, Throwable> callback) {
+        long queuedAt = System.nanoTime();
+        return executor.submit(() -> {
+            timings.recordQueueWait(System.nanoTime() - queuedAt);
+            try {
+                callback.accept(translate(request, deadline, timings), null);
+            } catch (RuntimeException e) {
+                callback.accept(null, e);
+            }
+        });
+    }
+
+    public long getCancelledUpstreamCalls() {
+        return cancelledUpstreamCalls.get();
+    }
+
+    public List<Map<String, Object>> getTierStats() {
+        return router.getStats();
+    }
+
+    /**
+     * Validator for the translation of {@code text}: it changes whenever the
+     * text, the model it is routed to or the prompt version changes.
+     */
+    public String cacheTag(String text) {
+        return cacheTag(text, router.route(text));
+    }
+
+    private String cacheTag(String text, int tierIndex) {
+        String model = router.tier(tierIndex).getModel();
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((PROMPT_VERSION + '\0' + model + '\0').getBytes(StandardCharsets.UTF_8));
+            digest.update(text.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Looks the text up under the tier it routes to, then under each larger
+     * tier, since an escalated translation is cached under the tier that
+     * produced it.
+     */
+    private String cachedTranslation(String text, int tierIndex) {
+        for (int i = tierIndex; i < router.size(); i++) {
+            String cached = translationCache.get(cacheTag(text, i));
+            if (cached != null) {
+                return cached;
+            }
+        }
+        return null;
+    }
+
+    public TranslationResponse translate(TranslationRequest request, Deadline deadline) {
+        return translate(request, deadline, new RequestTimings());
+    }
+
+    public TranslationResponse translate(TranslationRequest request, Deadline deadline, RequestTimings timings) {
+        int tierIndex = router.route(request.getText());
+        long lookupStart = System.nanoTime();
+        String cached = cachedTranslation(request.getText(), tierIndex);
+        timings.recordCacheLookup(System.nanoTime() - lookupStart);
+        if (cached != null) {
+            TranslationResponse response = new TranslationResponse(request.getText(), cached);
+            response.setSourceLang(request.getSourceLang());
+            response.setTargetLang(request.getTargetLang());
+            response.setCached(true);
+            return response;
+        }
+
+        ModelTier tier = router.tier(tierIndex);
         try {
-            logger.info("Translating text: {}", request.getText());
+            logger.debug("Translating {} chars on tier {}", request.getText().length(), tier.getName());
 
             String prompt = buildTranslationPrompt(request.getText());
 
             Map<String, Object> requestBody = new HashMap<>();
-            requestBody.put("model", modelName);
+            requestBody.put("model", tier.getModel());
             requestBody.put("messages", List.of(
                     Map.of("role", "system", "content", SYSTEM_PROMPT),
                     Map.of("role", "user", "content", prompt)));
 
             requestBody.put("temperature", 0.1);
-            requestBody.put("max_tokens", 150);
+            requestBody.put("max_tokens", tier.getMaxTokens());
             requestBody.put("top_p", 0.85);
             requestBody.put("repeat_penalty", 1.15);
 
-            logger.debug("Sending request to LM Studio: {}", requestBody);
-
-            Map<String, Object> response = webClient.post()
-                    .uri("/v1/chat/completions")
-                    .bodyValue(requestBody)
-                    .retrieve()
-                    .bodyToMono(Map.class)
-                    .block();
+            Map<String, Object> response = callLmStudio(tier, requestBody,
+                    deadline.budget(FIRST_ATTEMPT_SHARE, FALLBACK_RESERVE), timings);
 
             String translatedText = extractTranslation(response);
             translatedText = convertToAuthenticDarija(translatedText);
             translatedText = finalFilter(translatedText);
 
-            translatedText = validateAndRetry(translatedText, request.getText(), 0);
+            Attempt attempt = validateAndRetry(translatedText, request.getText(), 0, tierIndex, deadline, timings);
 
-            logger.info("Translation completed: {}", translatedText);
+            // Seules les traductions du modèle sont mises en cache, jamais la traduction de secours,
+            // et sous le tag du palier qui les a produites
+            if (!attempt.fallback) {
+                translationCache.put(cacheTag(request.getText(), attempt.tierIndex), attempt.text);
+            }
 
             TranslationResponse translationResponse = new TranslationResponse(
                     request.getText(),
-                    translatedText);
+                    attempt.text);
             translationResponse.setSourceLang(request.getSourceLang());
             translationResponse.setTargetLang(request.getTargetLang());
+            translationResponse.setFallback(attempt.fallback);
 
             return translationResponse;
 
+        } catch (CancellationException e) {
+            // Annulation voulue (remplacée, client parti, délai) : ni erreur ni fallback
+            logger.debug("Translation cancelled");
+            throw e;
         } catch (WebClientResponseException e) {
             logger.error("LM Studio API error: {} - {}", e.getStatusCode(), e.getResponseBodyAsString());
             if (e.getStatusCode().value() == 400 || e.getStatusCode().value() == 404) {
-                logger.warn("LM Studio model '{}' not available. Using fallback translation.", modelName);
+                logger.warn("LM Studio model '{}' not available. Using fallback translation.", tier.getModel());
                 return createFallbackTranslation(request.getText());
             }
             throw new RuntimeException("LM Studio error: " + e.getMessage());
@@ -109,6 +231,67 @@ public class TranslationService {
         }
     }
 
+    /**
+     * Calls the tier's model with the shorter of the tier timeout and the given
+     * budget. When the timeout fires or the calling thread is interrupted, the
+     * subscription is cancelled, which closes the HTTP request so LM Studio
+     * frees the slot right away. An interrupt surfaces as a
+     * {@link CancellationException} and is not counted as a tier failure.
+     */
+    private Map<String, Object> callLmStudio(ModelTier tier, Map<String, Object> requestBody, Duration budget,
+                                             RequestTimings timings) {
+        if (budget.isZero()) {
+            throw new IllegalStateException("Deadline exceeded before calling LM Studio");
+        }
+        Duration timeout = budget.compareTo(tier.getTimeout()) < 0 ? budget : tier.getTimeout();
+
+        long start = System.nanoTime();
+        boolean success = false;
+        boolean cancelled = false;
+        try {
+            Map<String, Object> response = tier.getWebClient().post()
+                    .uri("/v1/chat/completions")
+                    .bodyValue(requestBody)
+                    .retrieve()
+                    .bodyToMono(Map.class)
+                    .doFinally(signal -> {
+                        if (signal == SignalType.CANCEL) {
+                            cancelledUpstreamCalls.incrementAndGet();
+                            logger.debug("LM Studio request cancelled");
+                        }
+                    })
+                    .timeout(timeout)
+                    .block();
+            success = true;
+            return response;
+        } catch (RuntimeException e) {
+            if (isInterruption(e)) {
+                cancelled = true;
+                Thread.currentThread().interrupt();
+                throw new CancellationException("LM Studio call interrupted");
+            }
+            throw e;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            timings.recordUpstreamCall(elapsed);
+            if (!cancelled) {
+                tier.recordCall(elapsed, success);
+            }
+        }
+    }
+
+    private boolean isInterruption(Throwable e) {
+        if (Thread.currentThread().isInterrupted()) {
+            return true;
+        }
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof InterruptedException || cause instanceof CancellationException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private String buildTranslationPrompt(String text) {
         return """
                 Translate to Moroccan Darija (Arabic script only).
@@ -183,46 +366,66 @@ public class TranslationService {
                    .trim();
     }
 
-    private String validateAndRetry(String translatedText, String originalText, int retryCount) {
+    /**
+     * A rejected translation is retried on the next larger tier; the top tier
+     * retries itself, and a too-short answer only escalates when a larger tier
+     * exists.
+     */
+    private Attempt validateAndRetry(String translatedText, String originalText, int retryCount,
+                                     int tierIndex, Deadline deadline, RequestTimings timings) {
+        int nextTier = Math.min(tierIndex + 1, router.size() - 1);
+
         if (translatedText.matches(".*[A-Za-z]{3,}.*") && retryCount < 2) {
             logger.warn("Translation contains English words, retrying... (attempt {})", retryCount + 1);
-            return retryTranslation(originalText, retryCount + 1);
+            return escalate(originalText, retryCount + 1, tierIndex, nextTier, deadline, timings);
         }
 
         if (translatedText.length() < 5 && originalText.split("\\s+").length > 2) {
+            if (nextTier > tierIndex && retryCount < 2) {
+                logger.warn("Translation too short, escalating to tier {}", router.tier(nextTier).getName());
+                return escalate(originalText, retryCount + 1, tierIndex, nextTier, deadline, timings);
+            }
             logger.warn("Translation too short, using fallback");
-            return generateBasicTranslation(originalText);
+            return Attempt.fallback(generateBasicTranslation(originalText));
         }
 
-        return translatedText;
+        return Attempt.model(translatedText, tierIndex);
     }
 
-    private String retryTranslation(String text, int retryCount) {
+    private Attempt escalate(String text, int retryCount, int fromTier, int toTier, Deadline deadline,
+                             RequestTimings timings) {
+        if (toTier > fromTier) {
+            router.tier(fromTier).recordEscalation();
+        }
+        return retryTranslation(text, retryCount, toTier, deadline, timings);
+    }
+
+    private Attempt retryTranslation(String text, int retryCount, int tierIndex, Deadline deadline,
+                                     RequestTimings timings) {
+        ModelTier tier = router.tier(tierIndex);
         try {
             String prompt = "Translate to Moroccan Darija (Arabic script only): " + text;
 
             Map<String, Object> requestBody = new HashMap<>();
-            requestBody.put("model", modelName);
+            requestBody.put("model", tier.getModel());
             requestBody.put("messages", List.of(
                     Map.of("role", "system", "content", "You only speak Moroccan Darija in Arabic script."),
                     Map.of("role", "user", "content", prompt)));
             requestBody.put("temperature", 0.1);
-            requestBody.put("max_tokens", 150);
+            requestBody.put("max_tokens", tier.getMaxTokens());
 
-            Map<String, Object> response = webClient.post()
-                    .uri("/v1/chat/completions")
-                    .bodyValue(requestBody)
-                    .retrieve()
-                    .bodyToMono(Map.class)
-                    .block();
+            Map<String, Object> response = callLmStudio(tier, requestBody,
+                    deadline.budget(RETRY_SHARE, FALLBACK_RESERVE), timings);
 
             String result = extractTranslation(response);
             result = convertToAuthenticDarija(result);
-            return finalFilter(result);
+            return validateAndRetry(finalFilter(result), text, retryCount, tierIndex, deadline, timings);
 
+        } catch (CancellationException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Retry failed", e);
-            return generateBasicTranslation(text);
+            return Attempt.fallback(generateBasicTranslation(text));
         }
     }
 
@@ -257,6 +460,37 @@ public class TranslationService {
         TranslationResponse response = new TranslationResponse(text, translation);
         response.setSourceLang("en");
         response.setTargetLang("darija");
+        response.setFallback(true);
         return response;
     }
-}
\ No newline at end of file
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Outcome of a translation attempt: the text, whether it came from the
+     * local fallback rather than the model, and otherwise the tier that
+     * produced it.
+     */
+    private static final class Attempt {
+        private final String text;
+        private final boolean fallback;
+        private final int tierIndex;
+
+        private Attempt(String text, boolean fallback, int tierIndex) {
+            this.text = text;
+            this.fallback = fallback;
+            this.tierIndex = tierIndex;
+        }
+
+        static Attempt model(String text, int tierIndex) {
+            return new Attempt(text, false, tierIndex);
+        }
+
+        static Attempt fallback(String text) {
+            return new Attempt(text, true, -1);
+        }
+    }
+}
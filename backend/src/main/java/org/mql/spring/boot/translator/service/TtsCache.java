@@ -0,0 +1,176 @@
+package org.mql.spring.boot.translator.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed on-disk cache for synthesized speech. Files are named by
+ * SHA-256(text, language, voice) and evicted least-recently-used once the
+ * directory grows past {@code audio.tts.cache-max-bytes}.
+ */
+@Component
+public class TtsCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(TtsCache.class);
+
+    private final Path directory;
+    private final long maxBytes;
+
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public TtsCache(@Value("${audio.tts.cache-dir:${java.io.tmpdir}/darija-tts-cache}") String directory,
+                    @Value("${audio.tts.cache-max-bytes:268435456}") long maxBytes) {
+        this.directory = Paths.get(directory);
+        this.maxBytes = maxBytes;
+
+        try {
+            Files.createDirectories(this.directory);
+            loadExisting();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot initialize TTS cache in " + directory, e);
+        }
+        logger.info("TTS cache at {} ({} entries, {} bytes, limit {} bytes)",
+                this.directory, entries.size(), totalBytes, maxBytes);
+    }
+
+    public String key(String text, String language, String voice) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String part : new String[] { text, language, voice }) {
+                digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public boolean isValidKey(String key) {
+        return key != null && key.matches("[0-9a-f]{64}");
+    }
+
+    /**
+     * Lookup before synthesis: this is what the hit/miss statistics count, so
+     * a hit is a synthesis avoided. Serving the file later through
+     * {@link #get} is not counted again.
+     */
+    public synchronized boolean contains(String key) {
+        if (get(key) == null) {
+            misses.incrementAndGet();
+            return false;
+        }
+        hits.incrementAndGet();
+        return true;
+    }
+
+    public synchronized Path get(String key) {
+        Long size = entries.get(key);
+        if (size == null) {
+            return null;
+        }
+
+        Path path = resolve(key);
+        if (!Files.exists(path)) {
+            entries.remove(key);
+            totalBytes -= size;
+            return null;
+        }
+        return path;
+    }
+
+    public Path put(String key, byte[] audio) {
+        Path path = resolve(key);
+        try {
+            Path temp = Files.createTempFile(directory, key, ".tmp");
+            Files.write(temp, audio);
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write TTS cache entry " + key, e);
+        }
+
+        synchronized (this) {
+            Long previous = entries.put(key, (long) audio.length);
+            if (previous != null) {
+                totalBytes -= previous;
+            }
+            totalBytes += audio.length;
+            // La clé tout juste écrite est gardée, même seule au-dessus de la limite :
+            // textToSpeech renvoie déjà son URL
+            evict(key);
+        }
+        return path;
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        return Map.of(
+                "entries", entries.size(),
+                "bytes", totalBytes,
+                "maxBytes", maxBytes,
+                "hits", hits.get(),
+                "misses", misses.get());
+    }
+
+    private Path resolve(String key) {
+        return directory.resolve(key + ".wav");
+    }
+
+    /**
+     * Evicted files may still be open by a request streaming them: the channel
+     * is opened before the response is built, and an open file keeps its
+     * content after being unlinked.
+     */
+    private void evict(String keep) {
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            if (eldest.getKey().equals(keep)) {
+                continue;
+            }
+            try {
+                Files.deleteIfExists(resolve(eldest.getKey()));
+            } catch (IOException e) {
+                logger.warn("Could not delete evicted TTS entry {}", eldest.getKey(), e);
+            }
+            totalBytes -= eldest.getValue();
+            iterator.remove();
+            logger.debug("Evicted TTS entry {}", eldest.getKey());
+        }
+    }
+
+    private void loadExisting() throws IOException {
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(directory)) {
+            files = stream.filter(p -> p.getFileName().toString().endsWith(".wav")).toList();
+        }
+
+        files.stream()
+                .sorted(Comparator.comparing(p -> p.toFile().lastModified()))
+                .forEach(p -> {
+                    String name = p.getFileName().toString();
+                    String key = name.substring(0, name.length() - 4);
+                    long size = p.toFile().length();
+                    if (isValidKey(key)) {
+                        entries.put(key, size);
+                        totalBytes += size;
+                    }
+                });
+        evict(null);
+    }
+}
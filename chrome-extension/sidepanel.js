@@ -1,8 +1,6 @@
 const API_URL = 'http://localhost:8000/api/translator/translate';
-const AUTH_CREDENTIALS = {
-  username: 'admin',
-  password: 'admin123'
-};
+// Limite du GET côté serveur (translation.http-cache.max-text-chars)
+const GET_MAX_TEXT_CHARS = 4000;
 
 const inputText = document.getElementById('inputText');
 const translateBtn = document.getElementById('translateBtn');
@@ -53,21 +51,16 @@ async function handleTranslate() {
   }
 }
 
+// GET cacheable : le navigateur revalide avec l'ETag au lieu de retraduire.
+// Au-delà de la limite du GET, on repasse par le POST.
 async function translateText(text) {
-  const credentials = btoa(`${AUTH_CREDENTIALS.username}:${AUTH_CREDENTIALS.password}`);
-  
-  const response = await fetch(API_URL, {
-    method: 'POST',
-    headers: {
-      'Content-Type': 'application/json',
-      'Authorization': `Basic ${credentials}`
-    },
-    body: JSON.stringify({
-      text: text,
-      sourceLang: 'en',
-      targetLang: 'darija'
-    })
-  });
+  const response = text.length > GET_MAX_TEXT_CHARS
+    ? await fetch(API_URL, {
+        method: 'POST',
+        headers: { 'Content-Type': 'application/json' },
+        body: JSON.stringify({ text: text, sourceLang: 'en', targetLang: 'darija' })
+      })
+    : await fetch(await translateUrl(text));
 
   if (!response.ok) {
     throw new Error(`HTTP error! status: ${response.status}`);
@@ -76,6 +69,21 @@ async function translateText(text) {
   return await response.json();
 }
 
+// Textes longs : deflate brut + base64url pour garder une URL courte
+async function translateUrl(text) {
+  const encoded = encodeURIComponent(text);
+  if (encoded.length <= 512) {
+    return `${API_URL}?text=${encoded}`;
+  }
+
+  const stream = new Blob([text]).stream().pipeThrough(new CompressionStream('deflate-raw'));
+  const bytes = new Uint8Array(await new Response(stream).arrayBuffer());
+  let binary = '';
+  bytes.forEach((b) => { binary += String.fromCharCode(b); });
+  const compact = btoa(binary).replace(/\+/g, '-').replace(/\//g, '_').replace(/=+$/, '');
+  return `${API_URL}?q=${compact}`;
+}
+
 function handleClear() {
   inputText.value = '';
   hideError();
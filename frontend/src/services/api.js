@@ -1,5 +1,10 @@
 const API_BASE_URL = 'http://localhost:8000/api';
 
+function authHeaders() {
+  const token = localStorage.getItem('token');
+  return token ? { 'Authorization': `Bearer ${token}` } : {};
+}
+
 export async function register(username, email, password) {
   try {
     const response = await fetch(`${API_BASE_URL}/auth/register`, {
@@ -49,7 +54,8 @@ export async function translateText(text) {
     const response = await fetch(`${API_BASE_URL}/translator/translate`, {
       method: 'POST',
       headers: {
-        'Content-Type': 'application/json'
+        'Content-Type': 'application/json',
+        ...authHeaders()
       },
       body: JSON.stringify({
         text: text,
@@ -69,6 +75,67 @@ export async function translateText(text) {
   }
 }
 
+// Translate-as-you-type: call update(text) on every edit, onTranslation
+// only receives the result for the latest text.
+export function openLiveTranslation(onTranslation, onError = console.error) {
+  const socket = new WebSocket(`${API_BASE_URL.replace(/^http/, 'ws')}/translator/live`);
+  let revision = 0;
+  // Dernier texte saisi avant l'ouverture de la socket, envoyé dans onopen
+  let pendingText = null;
+
+  socket.onopen = () => {
+    if (pendingText !== null) {
+      socket.send(JSON.stringify({ revision, text: pendingText }));
+      pendingText = null;
+    }
+  };
+
+  socket.onmessage = (event) => {
+    const message = JSON.parse(event.data);
+    if (message.type === 'translation' && message.revision === revision) {
+      onTranslation(message);
+    } else if (message.type === 'error') {
+      onError(message.error);
+    }
+  };
+  socket.onerror = () => onError('Live translation connection error');
+
+  return {
+    update(text) {
+      revision += 1;
+      if (socket.readyState === WebSocket.OPEN) {
+        socket.send(JSON.stringify({ revision, text }));
+      } else if (socket.readyState === WebSocket.CONNECTING) {
+        pendingText = text;
+      }
+    },
+    close() {
+      socket.close();
+    }
+  };
+}
+
+export async function getHistory(cursor = null, limit = 20) {
+  try {
+    const params = new URLSearchParams({ limit });
+    if (cursor !== null) {
+      params.set('cursor', cursor);
+    }
+    const response = await fetch(`${API_BASE_URL}/translator/history?${params}`, {
+      headers: authHeaders()
+    });
+
+    if (!response.ok) {
+      throw new Error(`HTTP error! status: ${response.status}`);
+    }
+
+    return await response.json();
+  } catch (error) {
+    console.error('History error:', error);
+    throw error;
+  }
+}
+
 export async function checkHealth() {
   try {
     const response = await fetch(`${API_BASE_URL}/translator/health`);